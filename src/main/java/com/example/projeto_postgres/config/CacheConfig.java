@@ -0,0 +1,21 @@
+package com.example.projeto_postgres.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração de cache
+ * 
+ * Habilita as anotações @Cacheable/@CacheEvict. O provedor (Caffeine), os
+ * limites de tamanho e de tempo e o interruptor (spring.cache.type=none)
+ * ficam no application.properties.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Cache de produtos (ProductDTO por ID)
+     */
+    public static final String PRODUCTS = "products";
+}
@@ -0,0 +1,31 @@
+package com.example.projeto_postgres.config;
+
+import com.example.projeto_postgres.service.OrderTotalsBackfillService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executa o backfill dos totais de pedidos na inicialização
+ * 
+ * Roda depois da verificação de índices (SchemaIndexVerifier). Quando não há
+ * linhas pendentes, custa duas consultas nos índices parciais da V4.
+ * 
+ * Para desligar: app.backfill.order-totals.enabled=false
+ */
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "app.backfill.order-totals.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderTotalsBackfillRunner implements ApplicationRunner {
+
+    @Autowired
+    private OrderTotalsBackfillService backfillService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfillService.backfill();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.projeto_postgres.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração da paginação por cursor (keyset) dos endpoints de listagem
+ *
+ * As listagens recebem ?after=<id>&limit=<n> e buscam "WHERE id > :after ORDER BY id LIMIT n".
+ * Diferente de OFFSET, o PostgreSQL vai direto ao ponto do cursor pelo índice da
+ * chave primária, então a página 1000 custa o mesmo que a primeira.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.pagination")
+@Getter
+@Setter
+public class PaginationProperties {
+
+    /**
+     * Tamanho de página usado quando o cliente não informa "limit"
+     */
+    private int defaultLimit = 20;
+
+    /**
+     * Tamanho máximo de página aceito pelo servidor
+     */
+    private int maxLimit = 100;
+
+    /**
+     * Cria a requisição de página ordenada por ID, limitando o tamanho ao máximo permitido
+     */
+    public Pageable keyset(Integer limit) {
+        return PageRequest.of(0, clamp(limit), Sort.by("id"));
+    }
+
+    /**
+     * Limita o tamanho de página entre 1 e maxLimit
+     */
+    public int clamp(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        return Math.max(1, Math.min(limit, maxLimit));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.projeto_postgres.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas (@Scheduled)
+ * 
+ * Usado pela limpeza das chaves de idempotência expiradas (IdempotencyService).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
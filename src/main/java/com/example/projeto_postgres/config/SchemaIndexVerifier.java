@@ -0,0 +1,53 @@
+package com.example.projeto_postgres.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Verificação de índices na inicialização
+ * 
+ * O Hibernate (ddl-auto=validate) confere tabelas, colunas e sequences, mas
+ * não índices. Sem os índices das migrations, as consultas continuam
+ * funcionando, só que com sequential scans; esta verificação transforma um
+ * índice ausente (migration pulada, índice removido à mão, CREATE INDEX
+ * CONCURRENTLY que falhou) em erro de inicialização.
+ * 
+ * A lista fica em app.schema.required-indexes.
+ */
+@Component
+@Order(0)
+public class SchemaIndexVerifier implements ApplicationRunner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.schema.required-indexes}")
+    private List<String> requiredIndexes;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // indisvalid = false: CREATE INDEX CONCURRENTLY interrompido deixa um índice inválido, que não é usado
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+                        + "WHERE c.relnamespace = current_schema()::regnamespace AND i.indisvalid",
+                String.class));
+
+        List<String> missing = requiredIndexes.stream()
+                .map(String::trim)
+                .filter(index -> !existing.contains(index))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Índices ausentes ou inválidos no banco: " + missing
+                    + ". Verifique as migrations do Flyway (flyway_schema_history).");
+        }
+    }
+}
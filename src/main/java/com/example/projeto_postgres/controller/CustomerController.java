@@ -1,14 +1,29 @@
 package com.example.projeto_postgres.controller;
 
+import com.example.projeto_postgres.config.PaginationProperties;
+import com.example.projeto_postgres.dto.CursorPage;
+import com.example.projeto_postgres.dto.CustomerDTO;
+import com.example.projeto_postgres.dto.CustomerOrderSummaryDTO;
+import com.example.projeto_postgres.dto.CustomerUpsertDTO;
+import com.example.projeto_postgres.dto.SearchPage;
 import com.example.projeto_postgres.model.Customer;
 import com.example.projeto_postgres.repository.CustomerRepository;
+import com.example.projeto_postgres.repository.OrderRepository;
+import com.example.projeto_postgres.service.CustomerService;
+import com.example.projeto_postgres.service.IdempotencyService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +33,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 /**
  * Controller REST para operações CRUD de Clientes
+ * 
+ * As leituras retornam apenas o perfil do cliente. Com ?include=orderSummary,
+ * cada cliente recebe a quantidade de pedidos e o total gasto, calculados por
+ * uma única consulta agrupada para a página inteira. Os pedidos em si são
+ * lidos em GET /orders/customer/{customerId} (paginado).
  */
 @RestController
 @RequestMapping("/customers")
@@ -27,53 +47,108 @@ public class CustomerController {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private PaginationProperties pagination;
+
+    private static final String INCLUDE_ORDER_SUMMARY = "orderSummary";
+
     /**
      * CREATE - Criar um novo cliente
      * POST /customers
+     * 
+     * Com o header Idempotency-Key, uma retentativa com a mesma chave devolve o
+     * cliente criado na primeira vez (header Idempotent-Replayed: true).
+     * O email repetido é recusado pela constraint do banco (409), sem consulta prévia.
      */
     @Operation(summary = "Criar um novo cliente", description = "Cria um novo cliente no sistema")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Cliente criado com sucesso"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos ou email já existe")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+        @ApiResponse(responseCode = "409", description = "Já existe um cliente com este email"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key já usada com outro conteúdo")
     })
     @PostMapping
-    public ResponseEntity<Customer> createCustomer(@Valid @RequestBody Customer customer) {
-        // Verifica se já existe um cliente com o mesmo email
-        if (customerRepository.existsByEmail(customer.getEmail())) {
-            throw new RuntimeException("Já existe um cliente com este email");
-        }
-        
-        Customer savedCustomer = customerRepository.save(customer);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedCustomer);
+    public ResponseEntity<CustomerDTO> createCustomer(
+            @Valid @RequestBody Customer customer,
+            @Parameter(description = "Chave para repetir a requisição com segurança") @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        IdempotencyService.Result<CustomerDTO> result = idempotencyService.execute("customers", idempotencyKey,
+                customer, CustomerDTO.class, () -> customerService.create(customer));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.body());
     }
 
     /**
-     * READ - Listar todos os clientes
-     * GET /customers
+     * READ - Listar clientes (paginado por cursor)
+     * GET /customers?after=0&limit=20
      */
-    @Operation(summary = "Listar todos os clientes", description = "Retorna uma lista com todos os clientes cadastrados")
-    @ApiResponse(responseCode = "200", description = "Lista de clientes retornada com sucesso")
+    @Operation(summary = "Listar clientes", description = "Retorna uma página de clientes ordenada por ID (paginação por cursor)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de clientes retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Valor inválido para include")
+    })
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        List<Customer> customers = customerRepository.findAll();
-        return ResponseEntity.ok(customers);
+    public ResponseEntity<CursorPage<CustomerDTO>> getAllCustomers(
+            @Parameter(description = "ID do último cliente da página anterior") @RequestParam(defaultValue = "0") Long after,
+            @Parameter(description = "Quantidade de clientes por página") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Use \"orderSummary\" para incluir quantidade de pedidos e total gasto") @RequestParam(required = false) String include) {
+        Slice<CustomerDTO> customers = customerRepository.findPageAfter(after, pagination.keyset(limit));
+        CursorPage<CustomerDTO> page = CursorPage.of(customers, CustomerDTO::id);
+        return ResponseEntity.ok(new CursorPage<>(withIncludes(page.items(), include), page.nextCursor(), page.hasNext()));
+    }
+
+    /**
+     * SEARCH - Buscar clientes por nome, endereço ou telefone
+     * GET /customers/search?q=maria flores&after=&limit=20
+     * 
+     * Cada palavra do termo precisa ser o início de uma palavra do cliente, sem
+     * diferenciar maiúsculas nem acentos. Os mais relevantes vêm primeiro (nome
+     * pesa mais que endereço, que pesa mais que telefone). Para a próxima
+     * página, envie o nextCursor em "after".
+     */
+    @Operation(summary = "Buscar clientes", description = "Busca textual em nome, endereço e telefone, ordenada por relevância (paginação por cursor)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de clientes encontrados"),
+        @ApiResponse(responseCode = "400", description = "Termo de busca, cursor ou include inválido")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<SearchPage<CustomerDTO>> searchCustomers(
+            @Parameter(description = "Partes do nome, do endereço ou do telefone", required = true) @RequestParam String q,
+            @Parameter(description = "nextCursor da página anterior") @RequestParam(required = false) String after,
+            @Parameter(description = "Quantidade de clientes por página") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Use \"orderSummary\" para incluir quantidade de pedidos e total gasto") @RequestParam(required = false) String include) {
+        SearchPage<CustomerDTO> page = customerService.search(q, after, pagination.clamp(limit));
+        return ResponseEntity.ok(new SearchPage<>(withIncludes(page.items(), include), page.nextCursor(), page.hasNext()));
     }
 
     /**
      * READ - Buscar um cliente por ID
      * GET /customers/{id}
+     * 
+     * O header ETag traz a versão do cliente, usada no If-Match do PUT.
      */
     @Operation(summary = "Buscar cliente por ID", description = "Retorna um cliente específico pelo seu ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Cliente encontrado"),
+        @ApiResponse(responseCode = "400", description = "Valor inválido para include"),
         @ApiResponse(responseCode = "404", description = "Cliente não encontrado")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Customer> getCustomerById(
-            @Parameter(description = "ID do cliente", required = true) @PathVariable Long id) {
-        Customer customer = customerRepository.findById(id)
+    public ResponseEntity<CustomerDTO> getCustomerById(
+            @Parameter(description = "ID do cliente", required = true) @PathVariable Long id,
+            @Parameter(description = "Use \"orderSummary\" para incluir quantidade de pedidos e total gasto") @RequestParam(required = false) String include) {
+        CustomerDTO customer = customerRepository.findDTOById(id)
                 .orElseThrow(() -> new RuntimeException("Cliente não encontrado"));
-        return ResponseEntity.ok(customer);
+        return ResponseEntity.ok().eTag(ETags.of(customer.version())).body(withIncludes(List.of(customer), include).get(0));
     }
 
     /**
@@ -83,65 +158,118 @@ public class CustomerController {
     @Operation(summary = "Buscar cliente por email", description = "Retorna um cliente específico pelo seu email")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Cliente encontrado"),
+        @ApiResponse(responseCode = "400", description = "Valor inválido para include"),
         @ApiResponse(responseCode = "404", description = "Cliente não encontrado")
     })
     @GetMapping("/email/{email}")
-    public ResponseEntity<Customer> getCustomerByEmail(
-            @Parameter(description = "Email do cliente", required = true) @PathVariable String email) {
-        Customer customer = customerRepository.findByEmail(email)
+    public ResponseEntity<CustomerDTO> getCustomerByEmail(
+            @Parameter(description = "Email do cliente", required = true) @PathVariable String email,
+            @Parameter(description = "Use \"orderSummary\" para incluir quantidade de pedidos e total gasto") @RequestParam(required = false) String include) {
+        CustomerDTO customer = customerRepository.findDTOByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Cliente não encontrado com este email"));
-        return ResponseEntity.ok(customer);
+        return ResponseEntity.ok().eTag(ETags.of(customer.version())).body(withIncludes(List.of(customer), include).get(0));
+    }
+
+    /**
+     * Aplica o parâmetro ?include aos clientes de uma resposta
+     * 
+     * Com include=orderSummary, uma única consulta agrupada (GROUP BY cliente)
+     * calcula o resumo de todos os clientes de uma vez; sem include, nenhuma
+     * consulta extra é feita. Um valor desconhecido é rejeitado (400) mesmo
+     * quando a página está vazia
+     */
+    private List<CustomerDTO> withIncludes(List<CustomerDTO> customers, String include) {
+        if (include == null) {
+            return customers;
+        }
+        if (!INCLUDE_ORDER_SUMMARY.equals(include)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Valor inválido para include. Valores válidos: " + INCLUDE_ORDER_SUMMARY);
+        }
+        if (customers.isEmpty()) {
+            return customers;
+        }
+
+        Map<Long, CustomerOrderSummaryDTO> summaries = orderRepository
+                .findCustomerOrderSummaries(customers.stream().map(CustomerDTO::id).toList()).stream()
+                .collect(Collectors.toMap(CustomerOrderSummaryDTO::customerId, Function.identity()));
+
+        return customers.stream()
+                .map(customer -> customer.withOrderSummary(
+                        summaries.getOrDefault(customer.id(), CustomerOrderSummaryDTO.empty(customer.id()))))
+                .toList();
     }
 
     /**
      * UPDATE - Atualizar um cliente existente
      * PUT /customers/{id}
+     * 
+     * Com o header If-Match (ETag de GET /customers/{id}), a atualização só é
+     * aplicada se o cliente ainda estiver nessa versão; senão retorna 412 e o
+     * cliente deve ler de novo antes de gravar.
      */
     @Operation(summary = "Atualizar cliente", description = "Atualiza um cliente existente pelo ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Cliente atualizado com sucesso"),
         @ApiResponse(responseCode = "404", description = "Cliente não encontrado"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos ou email já existe")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+        @ApiResponse(responseCode = "409", description = "Email já existe ou conflito com atualizações simultâneas"),
+        @ApiResponse(responseCode = "412", description = "O cliente mudou desde a versão do If-Match")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<Customer> updateCustomer(
+    public ResponseEntity<CustomerDTO> updateCustomer(
             @Parameter(description = "ID do cliente", required = true) @PathVariable Long id, 
+            @Parameter(description = "ETag lido em GET /customers/{id}; a atualização só é aplicada se o cliente não mudou") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody Customer customerDetails) {
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Cliente não encontrado"));
-
-        // Verifica se o email está sendo alterado e se já existe outro cliente com esse email
-        if (!customer.getEmail().equals(customerDetails.getEmail()) && 
-            customerRepository.existsByEmail(customerDetails.getEmail())) {
-            throw new RuntimeException("Já existe um cliente com este email");
-        }
-
-        customer.setName(customerDetails.getName());
-        customer.setEmail(customerDetails.getEmail());
-        customer.setPhone(customerDetails.getPhone());
-        customer.setAddress(customerDetails.getAddress());
+        CustomerDTO updatedCustomer = customerService.update(id, customerDetails, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updatedCustomer.version())).body(updatedCustomer);
+    }
 
-        Customer updatedCustomer = customerRepository.save(customer);
-        return ResponseEntity.ok(updatedCustomer);
+    /**
+     * UPSERT - Criar ou atualizar um cliente pelo email
+     * PUT /customers/by-email/{email}
+     * 
+     * Um único INSERT ... ON CONFLICT (email): cria o cliente (201) ou atualiza
+     * nome, telefone e endereço do existente (200). Requisições simultâneas com
+     * o mesmo email resultam em um só cliente. Repetir os mesmos dados não
+     * regrava a linha (o ETag não muda).
+     */
+    @Operation(summary = "Criar ou atualizar cliente por email", description = "Cria o cliente com o email informado ou atualiza o existente")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Cliente criado"),
+        @ApiResponse(responseCode = "200", description = "Cliente atualizado (ou já estava com esses dados)"),
+        @ApiResponse(responseCode = "400", description = "Email ou dados inválidos")
+    })
+    @PutMapping("/by-email/{email}")
+    public ResponseEntity<CustomerDTO> upsertCustomer(
+            @Parameter(description = "Email do cliente", required = true) @PathVariable String email,
+            @Valid @RequestBody CustomerUpsertDTO customerDetails) {
+        CustomerService.UpsertResult result = customerService.upsert(email, customerDetails);
+        return ResponseEntity.status(result.created() ? HttpStatus.CREATED : HttpStatus.OK)
+                .eTag(ETags.of(result.customer().version()))
+                .body(result.customer());
     }
 
     /**
-     * DELETE - Deletar um cliente
+     * DELETE - Deletar um cliente com os seus pedidos
      * DELETE /customers/{id}
+     * 
+     * Até app.deletion.chunk-size pedidos, a exclusão é imediata (204). Acima
+     * disso, continua em segundo plano, em blocos (202); o cliente some quando
+     * ela termina.
      */
-    @Operation(summary = "Deletar cliente", description = "Remove um cliente do sistema pelo ID")
+    @Operation(summary = "Deletar cliente", description = "Remove um cliente e os seus pedidos pelo ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Cliente deletado com sucesso"),
+        @ApiResponse(responseCode = "202", description = "Cliente com muitos pedidos: exclusão em andamento"),
         @ApiResponse(responseCode = "404", description = "Cliente não encontrado")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCustomer(
             @Parameter(description = "ID do cliente", required = true) @PathVariable Long id) {
-        if (!customerRepository.existsById(id)) {
-            throw new RuntimeException("Cliente não encontrado");
+        if (customerService.delete(id)) {
+            return ResponseEntity.accepted().build();
         }
-        
-        customerRepository.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,48 @@
+package com.example.projeto_postgres.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Conversão entre a versão das entidades (@Version) e os headers ETag / If-Match
+ *
+ * O ETag é a própria versão entre aspas (ex: "3"). Um ETag fraco (W/"3"),
+ * como os gerados por proxies que comprimem a resposta, é aceito no If-Match.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Valor do ETag; ResponseEntity.eTag acrescenta as aspas
+     */
+    static String of(Long version) {
+        return String.valueOf(version);
+    }
+
+    /**
+     * Versão exigida pelo If-Match
+     *
+     * @return null sem o header ou com If-Match: * (qualquer versão)
+     * @throws ResponseStatusException 412 se o valor não for um ETag emitido pela API
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "If-Match não corresponde a nenhuma versão do recurso: " + ifMatch);
+        }
+    }
+}
@@ -1,21 +1,45 @@
 package com.example.projeto_postgres.controller;
 
+import com.example.projeto_postgres.config.PaginationProperties;
+import com.example.projeto_postgres.dto.CreateOrderBatchDTO;
+import com.example.projeto_postgres.dto.CreateOrderDTO;
+import com.example.projeto_postgres.dto.CursorPage;
+import com.example.projeto_postgres.dto.OrderBatchResultDTO;
+import com.example.projeto_postgres.dto.OrderCreatedDTO;
+import com.example.projeto_postgres.dto.OrderDetailDTO;
+import com.example.projeto_postgres.dto.OrderIntakeStatusDTO;
+import com.example.projeto_postgres.dto.OrderStatusBatchResultDTO;
+import com.example.projeto_postgres.dto.OrderSummaryDTO;
+import com.example.projeto_postgres.dto.SearchPage;
+import com.example.projeto_postgres.dto.UpdateOrderStatusBatchDTO;
 import com.example.projeto_postgres.model.*;
-import com.example.projeto_postgres.repository.CustomerRepository;
+import com.example.projeto_postgres.repository.OrderItemRepository;
 import com.example.projeto_postgres.repository.OrderRepository;
-import com.example.projeto_postgres.repository.ProductRepository;
+import com.example.projeto_postgres.service.IdempotencyService;
+import com.example.projeto_postgres.service.OrderBatchService;
+import com.example.projeto_postgres.service.OrderExportService;
+import com.example.projeto_postgres.service.OrderImportService;
+import com.example.projeto_postgres.service.OrderIntakeService;
+import com.example.projeto_postgres.service.OrderSearchService;
+import com.example.projeto_postgres.service.OrderService;
+import com.example.projeto_postgres.service.OrderStatusService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -35,64 +59,34 @@ public class OrderController {
     private OrderRepository orderRepository;
 
     @Autowired
-    private CustomerRepository customerRepository;
+    private OrderItemRepository orderItemRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private OrderService orderService;
 
-    /**
-     * DTO para criar um pedido com itens
-     */
-    public static class CreateOrderDTO {
-        @NotNull(message = "O ID do cliente é obrigatório")
-        private Long customerId;
-        
-        private List<OrderItemDTO> items = new ArrayList<>();
-
-        public Long getCustomerId() {
-            return customerId;
-        }
-
-        public void setCustomerId(Long customerId) {
-            this.customerId = customerId;
-        }
+    @Autowired
+    private OrderBatchService orderBatchService;
 
-        public List<OrderItemDTO> getItems() {
-            return items;
-        }
+    @Autowired
+    private OrderExportService orderExportService;
 
-        public void setItems(List<OrderItemDTO> items) {
-            this.items = items;
-        }
-    }
+    @Autowired
+    private OrderImportService orderImportService;
 
-    /**
-     * DTO para item do pedido
-     */
-    public static class OrderItemDTO {
-        @NotNull(message = "O ID do produto é obrigatório")
-        private Long productId;
-        
-        @Positive(message = "A quantidade deve ser maior que zero")
-        @NotNull(message = "A quantidade é obrigatória")
-        private Integer quantity;
+    @Autowired
+    private IdempotencyService idempotencyService;
 
-        public Long getProductId() {
-            return productId;
-        }
+    @Autowired
+    private OrderIntakeService orderIntakeService;
 
-        public void setProductId(Long productId) {
-            this.productId = productId;
-        }
+    @Autowired
+    private OrderStatusService orderStatusService;
 
-        public Integer getQuantity() {
-            return quantity;
-        }
+    @Autowired
+    private OrderSearchService orderSearchService;
 
-        public void setQuantity(Integer quantity) {
-            this.quantity = quantity;
-        }
-    }
+    @Autowired
+    private PaginationProperties pagination;
 
     /**
      * CREATE - Criar um novo pedido
@@ -106,64 +100,185 @@ public class OrderController {
      *     {"productId": 2, "quantity": 1}
      *   ]
      * }
+     * 
+     * Com o header Idempotency-Key, uma retentativa com a mesma chave (ex: depois
+     * de um timeout) devolve o pedido criado na primeira vez, sem criar outro
+     * (header Idempotent-Replayed: true).
+     * 
+     * Modo assíncrono (app.orders.intake.mode=async): o pedido validado entra em
+     * uma fila e a resposta é 202 com o ID de rastreamento, consultado em
+     * GET /orders/intake/{trackingId}. Fila cheia retorna 429. Pedidos com
+     * Idempotency-Key continuam síncronos: a chave é gravada junto com o pedido.
      */
     @Operation(summary = "Criar um novo pedido", description = "Cria um novo pedido com itens para um cliente")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Pedido criado com sucesso"),
+        @ApiResponse(responseCode = "202", description = "Pedido aceito na fila (modo assíncrono)"),
         @ApiResponse(responseCode = "400", description = "Dados inválidos"),
-        @ApiResponse(responseCode = "404", description = "Cliente ou produto não encontrado")
+        @ApiResponse(responseCode = "404", description = "Cliente ou produto(s) não encontrado(s)"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key já usada com outro conteúdo"),
+        @ApiResponse(responseCode = "429", description = "Fila de pedidos cheia (modo assíncrono)")
     })
     @PostMapping
-    public ResponseEntity<Order> createOrder(@Valid @RequestBody CreateOrderDTO orderDTO) {
-        // Busca o cliente
-        Customer customer = customerRepository.findById(orderDTO.getCustomerId())
-                .orElseThrow(() -> new RuntimeException("Cliente não encontrado"));
-
-        // Cria o pedido
-        Order order = new Order();
-        order.setCustomer(customer);
-        order.setStatus(Order.OrderStatus.PENDING);
+    public ResponseEntity<?> createOrder(
+            @Valid @RequestBody CreateOrderDTO orderDTO,
+            @Parameter(description = "Chave para repetir a requisição com segurança") @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (orderIntakeService.isAsync() && idempotencyKey == null) {
+            OrderIntakeStatusDTO accepted = orderIntakeService.submit(orderDTO);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/orders/intake/" + accepted.trackingId()))
+                    .body(accepted);
+        }
+        IdempotencyService.Result<OrderCreatedDTO> result = idempotencyService.execute("orders", idempotencyKey,
+                orderDTO, OrderCreatedDTO.class, () -> orderService.createOrder(orderDTO));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.body());
+    }
 
-        // Cria os itens do pedido
-        List<OrderItem> items = new ArrayList<>();
-        for (OrderItemDTO itemDTO : orderDTO.getItems()) {
-            Product product = productRepository.findById(itemDTO.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Produto não encontrado: " + itemDTO.getProductId()));
+    /**
+     * CREATE - Criar vários pedidos em uma requisição
+     * POST /orders/batch
+     * 
+     * Body exemplo:
+     * {
+     *   "orders": [
+     *     {"customerId": 1, "items": [{"productId": 1, "quantity": 2}]},
+     *     {"customerId": 999, "items": [{"productId": 2, "quantity": 1}]}
+     *   ]
+     * }
+     * 
+     * Resposta: um resultado por pedido, na ordem enviada. Pedidos com erro não
+     * impedem a criação dos demais:
+     * {
+     *   "created": 1,
+     *   "failed": 1,
+     *   "results": [
+     *     {"index": 0, "id": 101},
+     *     {"index": 1, "error": "Cliente não encontrado: 999"}
+     *   ]
+     * }
+     */
+    @Operation(summary = "Criar pedidos em lote", description = "Cria vários pedidos de uma vez e retorna o ID ou o erro de cada pedido")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado; veja o resultado de cada pedido"),
+        @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do tamanho máximo")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchResultDTO> createOrders(@Valid @RequestBody CreateOrderBatchDTO batchDTO) {
+        return ResponseEntity.ok(orderBatchService.createOrders(batchDTO.getOrders()));
+    }
 
-            OrderItem item = new OrderItem();
-            item.setOrder(order);
-            item.setProduct(product);
-            item.setQuantity(itemDTO.getQuantity());
-            items.add(item);
-        }
+    /**
+     * CREATE - Importar pedidos em NDJSON (streaming)
+     * POST /orders/import
+     * Content-Type: application/x-ndjson
+     * 
+     * Body: um pedido por linha, no mesmo formato de POST /orders:
+     * {"customerId": 1, "items": [{"productId": 1, "quantity": 2}]}
+     * {"customerId": 2, "items": [{"productId": 3, "quantity": 1}]}
+     * 
+     * A resposta (também NDJSON) recebe uma linha de progresso a cada bloco gravado:
+     * {"processed": 500, "created": 498, "failed": 2, "errors": [{"line": 17, "error": "..."}], "done": false}
+     * A última linha tem "done": true. O arquivo é lido enquanto os pedidos são
+     * gravados, sem carregá-lo em memória, no ritmo dos commits do banco.
+     */
+    @Operation(summary = "Importar pedidos", description = "Importa pedidos em NDJSON (um pedido por linha) em streaming, gravando em blocos e respondendo com linhas de progresso")
+    @ApiResponse(responseCode = "200", description = "Importação processada; veja as linhas de progresso")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importOrders(InputStream in) {
+        StreamingResponseBody body = out -> orderImportService.importOrders(in, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 
-        order.setItems(items);
-        Order savedOrder = orderRepository.save(order);
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedOrder);
+    /**
+     * READ - Situação de um pedido recebido no modo assíncrono
+     * GET /orders/intake/{trackingId}
+     * 
+     * QUEUED enquanto está na fila, DURABLE (com orderId) depois do commit,
+     * FAILED (com error) se não pôde ser gravado.
+     */
+    @Operation(summary = "Situação de pedido na fila", description = "Informa se um pedido aceito no modo assíncrono já foi gravado no banco")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Situação encontrada"),
+        @ApiResponse(responseCode = "404", description = "ID de rastreamento desconhecido ou expirado")
+    })
+    @GetMapping("/intake/{trackingId}")
+    public ResponseEntity<OrderIntakeStatusDTO> getIntakeStatus(
+            @Parameter(description = "ID de rastreamento retornado no 202", required = true) @PathVariable String trackingId) {
+        return orderIntakeService.findStatus(trackingId)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new RuntimeException("Rastreamento não encontrado"));
     }
 
     /**
-     * READ - Listar todos os pedidos
-     * GET /orders
+     * READ - Listar pedidos (paginado por cursor)
+     * GET /orders?after=0&limit=20
      */
-    @Operation(summary = "Listar todos os pedidos", description = "Retorna uma lista com todos os pedidos cadastrados")
-    @ApiResponse(responseCode = "200", description = "Lista de pedidos retornada com sucesso")
+    @Operation(summary = "Listar pedidos", description = "Retorna uma página de pedidos ordenada por ID (paginação por cursor)")
+    @ApiResponse(responseCode = "200", description = "Página de pedidos retornada com sucesso")
     @GetMapping
-    @Transactional(readOnly = true)
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        // Força o carregamento dos relacionamentos lazy
-        orders.forEach(order -> {
-            order.getItems().size(); // Carrega os itens
-            order.getCustomer().getName(); // Carrega o cliente
-        });
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> getAllOrders(
+            @Parameter(description = "ID do último pedido da página anterior") @RequestParam(defaultValue = "0") Long after,
+            @Parameter(description = "Quantidade de pedidos por página") @RequestParam(required = false) Integer limit) {
+        Slice<OrderSummaryDTO> page = orderRepository.findSummariesAfter(after, pagination.keyset(limit));
+        return ResponseEntity.ok(CursorPage.of(page, OrderSummaryDTO::id));
+    }
+
+    /**
+     * SEARCH - Buscar pedidos por status, período, cliente e valor mínimo
+     * GET /orders/search?status=PENDING&status=CONFIRMED&from=2024-01-01T00:00:00&to=2024-02-01T00:00:00&customerId=1&minTotalInCents=10000
+     * 
+     * Todos os filtros são opcionais e podem ser combinados; a consulta leva só
+     * os filtros informados. Os pedidos vêm do mais recente para o mais antigo.
+     * Para a próxima página, envie o nextCursor em "after".
+     */
+    @Operation(summary = "Buscar pedidos", description = "Busca pedidos por status, período, cliente e valor mínimo, do mais recente para o mais antigo (paginação por cursor)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de pedidos encontrados"),
+        @ApiResponse(responseCode = "400", description = "Período ou cursor inválido")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<SearchPage<OrderSummaryDTO>> searchOrders(
+            @Parameter(description = "Status do pedido (pode repetir)") @RequestParam(required = false) List<Order.OrderStatus> status,
+            @Parameter(description = "Data inicial (inclusiva), ISO-8601") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Data final (exclusiva), ISO-8601") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "ID do cliente") @RequestParam(required = false) Long customerId,
+            @Parameter(description = "Valor total mínimo, em centavos") @RequestParam(required = false) Long minTotalInCents,
+            @Parameter(description = "nextCursor da página anterior") @RequestParam(required = false) String after,
+            @Parameter(description = "Quantidade de pedidos por página") @RequestParam(required = false) Integer limit) {
+        OrderSearchService.Filters filters = new OrderSearchService.Filters(status, from, to, customerId, minTotalInCents);
+        return ResponseEntity.ok(orderSearchService.search(filters, after, pagination.clamp(limit)));
+    }
+
+    /**
+     * READ - Exportar pedidos em NDJSON (streaming)
+     * GET /orders/export?from=2024-01-01T00:00:00&to=2024-02-01T00:00:00&status=DELIVERED
+     * 
+     * Cada linha da resposta é um pedido completo (mesmo formato de GET /orders/{id}).
+     * A resposta é escrita enquanto a consulta é lida, em outra thread, sem montar
+     * a lista de pedidos em memória. Todos os filtros são opcionais.
+     */
+    @Operation(summary = "Exportar pedidos", description = "Exporta os pedidos em NDJSON (um pedido por linha), em streaming, com filtros opcionais de período e status")
+    @ApiResponse(responseCode = "200", description = "Pedidos exportados em application/x-ndjson")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Data inicial (inclusiva), ISO-8601") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Data final (exclusiva), ISO-8601") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Status do pedido") @RequestParam(required = false) Order.OrderStatus status) {
+        StreamingResponseBody body = out -> orderExportService.export(from, to, status, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
      * READ - Buscar um pedido por ID
      * GET /orders/{id}
+     * 
+     * O header ETag traz a versão do pedido, usada no If-Match do PUT /orders/{id}/status.
      */
     @Operation(summary = "Buscar pedido por ID", description = "Retorna um pedido específico pelo seu ID")
     @ApiResponses(value = {
@@ -172,36 +287,32 @@ public class OrderController {
     })
     @GetMapping("/{id}")
     @Transactional(readOnly = true)
-    public ResponseEntity<Order> getOrderById(
+    public ResponseEntity<OrderDetailDTO> getOrderById(
             @Parameter(description = "ID do pedido", required = true) @PathVariable Long id) {
-        Order order = orderRepository.findById(id)
+        // Duas consultas: o resumo do pedido e as linhas com o nome de cada produto
+        OrderSummaryDTO summary = orderRepository.findSummaryById(id)
                 .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
-        // Força o carregamento dos relacionamentos lazy
-        order.getItems().size(); // Carrega os itens
-        order.getCustomer().getName(); // Carrega o cliente
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(summary.version()))
+                .body(OrderDetailDTO.of(summary, orderItemRepository.findDetailsByOrderId(id)));
     }
 
     /**
-     * READ - Buscar pedidos de um cliente
-     * GET /orders/customer/{customerId}
+     * READ - Buscar pedidos de um cliente (paginado por cursor)
+     * GET /orders/customer/{customerId}?after=0&limit=20
      */
-    @Operation(summary = "Buscar pedidos de um cliente", description = "Retorna todos os pedidos de um cliente específico")
+    @Operation(summary = "Buscar pedidos de um cliente", description = "Retorna uma página dos pedidos de um cliente específico, ordenada por ID")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de pedidos retornada com sucesso"),
+        @ApiResponse(responseCode = "200", description = "Página de pedidos retornada com sucesso"),
         @ApiResponse(responseCode = "404", description = "Cliente não encontrado")
     })
     @GetMapping("/customer/{customerId}")
-    @Transactional(readOnly = true)
-    public ResponseEntity<List<Order>> getOrdersByCustomer(
-            @Parameter(description = "ID do cliente", required = true) @PathVariable Long customerId) {
-        List<Order> orders = orderRepository.findByCustomerId(customerId);
-        // Força o carregamento dos relacionamentos lazy
-        orders.forEach(order -> {
-            order.getItems().size(); // Carrega os itens
-            order.getCustomer().getName(); // Carrega o cliente
-        });
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> getOrdersByCustomer(
+            @Parameter(description = "ID do cliente", required = true) @PathVariable Long customerId,
+            @Parameter(description = "ID do último pedido da página anterior") @RequestParam(defaultValue = "0") Long after,
+            @Parameter(description = "Quantidade de pedidos por página") @RequestParam(required = false) Integer limit) {
+        Slice<OrderSummaryDTO> page = orderRepository.findSummariesByCustomerAfter(customerId, after, pagination.keyset(limit));
+        return ResponseEntity.ok(CursorPage.of(page, OrderSummaryDTO::id));
     }
 
     /**
@@ -212,29 +323,58 @@ public class OrderController {
      * {
      *   "status": "CONFIRMED"
      * }
+     * 
+     * Só transições permitidas são aceitas (ex: um pedido DELIVERED não volta
+     * para PENDING); as demais retornam 409. Pedir o status atual não altera nada.
+     * Com o header If-Match (ETag de GET /orders/{id}), a mudança só é aplicada
+     * se o pedido ainda estiver nessa versão; senão retorna 412.
      */
-    @Operation(summary = "Atualizar status do pedido", description = "Atualiza o status de um pedido (PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED)")
+    @Operation(summary = "Atualizar status do pedido", description = "Atualiza o status de um pedido (PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED) seguindo as transições permitidas")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Status atualizado com sucesso"),
         @ApiResponse(responseCode = "404", description = "Pedido não encontrado"),
-        @ApiResponse(responseCode = "400", description = "Status inválido")
+        @ApiResponse(responseCode = "400", description = "Status inválido"),
+        @ApiResponse(responseCode = "409", description = "Transição de status não permitida"),
+        @ApiResponse(responseCode = "412", description = "O pedido mudou desde a versão do If-Match")
     })
     @PutMapping("/{id}/status")
-    public ResponseEntity<Order> updateOrderStatus(
+    public ResponseEntity<OrderSummaryDTO> updateOrderStatus(
             @Parameter(description = "ID do pedido", required = true) @PathVariable Long id, 
+            @Parameter(description = "ETag lido em GET /orders/{id}; a mudança só é aplicada se o pedido não mudou") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody OrderStatusDTO statusDTO) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
-
-        try {
-            Order.OrderStatus status = Order.OrderStatus.valueOf(statusDTO.getStatus().toUpperCase());
-            order.setStatus(status);
-        } catch (IllegalArgumentException e) {
-            throw new RuntimeException("Status inválido. Valores válidos: PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED");
-        }
+        orderStatusService.updateStatus(id, OrderStatusService.parseStatus(statusDTO.getStatus()), ETags.parseIfMatch(ifMatch));
+        OrderSummaryDTO summary = orderRepository.findSummaryById(id).orElseThrow();
+        return ResponseEntity.ok().eTag(ETags.of(summary.version())).body(summary);
+    }
 
-        Order updatedOrder = orderRepository.save(order);
-        return ResponseEntity.ok(updatedOrder);
+    /**
+     * UPDATE - Atualizar o status de vários pedidos
+     * PUT /orders/status
+     * 
+     * Body exemplo:
+     * {
+     *   "ids": [101, 102, 103],
+     *   "status": "SHIPPED"
+     * }
+     * 
+     * Resposta: os pedidos alterados, os que já estavam no status e os rejeitados
+     * (com o motivo). Os pedidos não são carregados: a mudança é um único UPDATE.
+     * {
+     *   "status": "SHIPPED",
+     *   "updated": [101, 102],
+     *   "unchanged": [],
+     *   "rejected": [{"id": 103, "currentStatus": "DELIVERED", "error": "Transição de status não permitida: DELIVERED -> SHIPPED"}]
+     * }
+     */
+    @Operation(summary = "Atualizar status de vários pedidos", description = "Aplica o mesmo status a uma lista de pedidos, seguindo as transições permitidas, e informa os pedidos alterados e os rejeitados")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado; veja os pedidos alterados e rejeitados"),
+        @ApiResponse(responseCode = "400", description = "Lista vazia, acima do tamanho máximo ou status inválido")
+    })
+    @PutMapping("/status")
+    public ResponseEntity<OrderStatusBatchResultDTO> updateOrdersStatus(@Valid @RequestBody UpdateOrderStatusBatchDTO statusDTO) {
+        return ResponseEntity.ok(orderStatusService.updateStatus(statusDTO.getIds(),
+                OrderStatusService.parseStatus(statusDTO.getStatus())));
     }
 
     /**
@@ -256,6 +396,8 @@ public class OrderController {
     /**
      * DELETE - Deletar um pedido
      * DELETE /orders/{id}
+     * 
+     * Um único DELETE; os itens são excluídos pelo banco (ON DELETE CASCADE)
      */
     @Operation(summary = "Deletar pedido", description = "Remove um pedido do sistema pelo ID")
     @ApiResponses(value = {
@@ -265,11 +407,7 @@ public class OrderController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(
             @Parameter(description = "ID do pedido", required = true) @PathVariable Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new RuntimeException("Pedido não encontrado");
-        }
-        
-        orderRepository.deleteById(id);
+        orderService.delete(id);
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,12 +1,41 @@
 // Declaração do pacote - organiza a classe no pacote de controllers
 package com.example.projeto_postgres.controller;
 
+// Importa a configuração de paginação e o formato de página por cursor
+import com.example.projeto_postgres.config.PaginationProperties;
+import com.example.projeto_postgres.dto.CursorPage;
+
+// Importa o DTO de leitura: apenas os campos do catálogo (id, nome, preço)
+import com.example.projeto_postgres.dto.ProductDTO;
+
+// Importa o DTO das linhas de pedido de um produto (histórico de vendas)
+import com.example.projeto_postgres.dto.ProductOrderItemDTO;
+
+// Importa os DTOs de estoque: saldo disponível e entrada de estoque
+import com.example.projeto_postgres.dto.ProductStockDTO;
+import com.example.projeto_postgres.dto.StockAdjustmentDTO;
+
+// Importa o DTO das sugestões do autocomplete (ID e nome)
+import com.example.projeto_postgres.dto.ProductSuggestionDTO;
+
 // Importa a entidade Product que será usada nas requisições/respostas
 import com.example.projeto_postgres.model.Product;
 
 // Importa o repositório para acessar os dados do banco PostgreSQL
 import com.example.projeto_postgres.repository.ProductRepository;
 
+// Importa o repositório de itens de pedido para o histórico de vendas do produto
+import com.example.projeto_postgres.repository.OrderItemRepository;
+
+// Importa o serviço do catálogo: leituras por ID passam pelo cache de produtos
+import com.example.projeto_postgres.service.ProductService;
+
+// Importa o índice em memória dos nomes dos produtos (autocomplete sem ir ao banco)
+import com.example.projeto_postgres.service.ProductNameIndex;
+
+// Importa o serviço de estoque (reservas em memória + saldo no banco)
+import com.example.projeto_postgres.service.StockService;
+
 // Importa @Valid para habilitar validações do Bean Validation
 // Quando um objeto tem @Valid, o Spring valida automaticamente todas as anotações
 // de validação (@NotBlank, @Positive, etc.) antes de executar o método
@@ -16,6 +45,12 @@ import jakarta.validation.Valid;
 // O Spring automaticamente injeta uma instância do ProductRepository aqui
 import org.springframework.beans.factory.annotation.Autowired;
 
+// Importa Slice: uma fatia de resultados que sabe se existe próxima página
+import org.springframework.data.domain.Slice;
+
+// Importa HttpHeaders para os nomes padronizados dos headers (ex: If-Match)
+import org.springframework.http.HttpHeaders;
+
 // Importa HttpStatus para códigos HTTP padronizados (200, 201, 404, etc.)
 import org.springframework.http.HttpStatus;
 
@@ -32,9 +67,11 @@ import org.springframework.http.ResponseEntity;
 // @DeleteMapping: Mapeia requisições HTTP DELETE
 // @RequestBody: Converte o JSON do corpo da requisição em um objeto Java
 // @PathVariable: Extrai variáveis da URL (ex: /products/{id})
+// @RequestParam: Extrai parâmetros da query string (ex: ?after=10&limit=20)
+// @RequestHeader: Extrai um header da requisição (ex: If-Match)
 import org.springframework.web.bind.annotation.*;
 
-// Importa List para retornar coleções de produtos
+// Importa List para as respostas da busca por nome e do autocomplete
 import java.util.List;
 
 // Importa anotações do Swagger/OpenAPI para documentação
@@ -104,6 +141,21 @@ public class ProductController {
     @Autowired // Injeção de dependência: Spring injeta automaticamente o ProductRepository
     private ProductRepository productRepository; // Repositório para acessar dados do PostgreSQL
 
+    @Autowired
+    private ProductService productService; // Leitura por ID com cache; a atualização grava a nova versão no cache e a remoção tira a entrada
+
+    @Autowired
+    private OrderItemRepository orderItemRepository; // Linhas de pedido (histórico de vendas)
+
+    @Autowired
+    private StockService stockService; // Saldo e entrada de estoque
+
+    @Autowired
+    private ProductNameIndex productNameIndex; // Índice em memória dos nomes (autocomplete)
+
+    @Autowired
+    private PaginationProperties pagination; // Tamanho padrão e máximo das páginas
+
     /**
      * CREATE - Criar um novo produto
      * 
@@ -120,17 +172,21 @@ public class ProductController {
      * Exemplo de JSON esperado:
      * {
      *   "name": "Notebook",
-     *   "priceInCents": 250000
+     *   "priceInCents": 250000,
+     *   "stockQuantity": 100
      * }
      * 
+     * stockQuantity é opcional: sem ele o produto não tem controle de estoque
+     * (os pedidos não são limitados)
+     * 
      * COM POSTGRESQL:
      * - O produto é salvo permanentemente no banco
-     * - O ID é gerado pelo PostgreSQL usando SERIAL
+     * - O ID vem da sequence products_seq (blocos de 50 IDs reservados pelo Hibernate)
      * - A transação é commitada automaticamente
      * 
      * ResponseEntity: Permite controlar o código HTTP e o corpo da resposta
      * - HttpStatus.CREATED (201): Indica que o recurso foi criado com sucesso
-     * - body(savedProduct): Retorna o produto criado (com ID gerado) em JSON
+     * - body(ProductDTO): Retorna o produto criado (com ID gerado) em JSON
      */
     @Operation(summary = "Criar um novo produto", description = "Cria um novo produto no sistema")
     @ApiResponses(value = {
@@ -138,51 +194,127 @@ public class ProductController {
         @ApiResponse(responseCode = "400", description = "Dados inválidos")
     })
     @PostMapping // Mapeia requisições HTTP POST para /products
-    public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
+    public ResponseEntity<ProductDTO> createProduct(@Valid @RequestBody Product product) {
         // Salva o produto no banco PostgreSQL
         // O método save() do JPA:
         // - Se o ID for null: cria um novo registro (INSERT INTO products ...)
         // - Se o ID existir: atualiza o registro existente (UPDATE products ...)
-        // - O PostgreSQL gera o ID automaticamente usando SERIAL
+        // - O ID é obtido da sequence products_seq antes do INSERT
         Product savedProduct = productRepository.save(product);
+
+        // Depois do commit, o nome entra no índice do autocomplete
+        productNameIndex.put(savedProduct.getId(), savedProduct.getName());
         
         // Retorna resposta HTTP 201 (Created) com o produto criado no corpo
-        // O Spring automaticamente converte o objeto Product em JSON
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
+        // A resposta é o DTO: nunca serializa a entidade nem as suas associações
+        return ResponseEntity.status(HttpStatus.CREATED).body(ProductDTO.from(savedProduct));
     }
 
     /**
-     * READ - Listar todos os produtos
+     * READ - Listar produtos (paginado por cursor)
      * 
-     * Endpoint: GET http://localhost:8080/products
+     * Endpoint: GET http://localhost:8080/products?after=0&limit=20
      * 
      * @GetMapping: Mapeia requisições HTTP GET para este método
      * 
+     * @RequestParam: Extrai parâmetros da query string
+     * - after: ID do último produto recebido (cursor); 0 para a primeira página
+     * - limit: quantidade de produtos por página (limitado a app.pagination.max-limit)
+     * 
      * COM POSTGRESQL:
-     * - Executa: SELECT * FROM products
-     * - Retorna todos os produtos salvos permanentemente no banco
-     * - Os dados persistem mesmo após reiniciar a aplicação
+     * - Executa: SELECT id, name, price_in_cents FROM products WHERE id > ? ORDER BY id LIMIT ?
+     * - A consulta monta o ProductDTO direto (projeção), sem carregar entidades
+     * - Usa o índice da chave primária para ir direto ao cursor
+     * - Diferente de OFFSET, páginas profundas custam o mesmo que a primeira
      * 
-     * ResponseEntity.ok(): Método helper que retorna HTTP 200 (OK)
-     * Equivale a: ResponseEntity.status(HttpStatus.OK).body(products)
+     * O Spring automaticamente serializa a CursorPage em JSON:
+     * {
+     *   "items": [
+     *     {"id": 1, "name": "Notebook", "priceInCents": 250000},
+     *     {"id": 2, "name": "Mouse", "priceInCents": 5000}
+     *   ],
+     *   "nextCursor": 2,
+     *   "hasNext": true
+     * }
+     */
+    @Operation(summary = "Listar produtos", description = "Retorna uma página de produtos ordenada por ID (paginação por cursor)")
+    @ApiResponse(responseCode = "200", description = "Página de produtos retornada com sucesso")
+    @GetMapping // Mapeia requisições HTTP GET para /products
+    public ResponseEntity<CursorPage<ProductDTO>> getAllProducts(
+            @Parameter(description = "ID do último produto da página anterior") @RequestParam(defaultValue = "0") Long after,
+            @Parameter(description = "Quantidade de produtos por página") @RequestParam(required = false) Integer limit) {
+        // Busca a próxima página de produtos no banco PostgreSQL
+        // O Slice traz limit + 1 linhas para saber se existe próxima página (sem COUNT(*))
+        Slice<ProductDTO> products = productRepository.findPageAfter(after, pagination.keyset(limit));
+        
+        // Retorna HTTP 200 (OK) com a página de produtos e o cursor da próxima página
+        return ResponseEntity.ok(CursorPage.of(products, ProductDTO::id));
+    }
+
+    /**
+     * READ - Buscar produtos pelo nome
+     * 
+     * Endpoint: GET http://localhost:8080/products/search?q=cadeira&minPriceInCents=10000&maxPriceInCents=50000&limit=20
+     * 
+     * @RequestParam:
+     * - q: termo de busca (obrigatório); pode ser parte do nome e ter erros de digitação
+     * - minPriceInCents / maxPriceInCents: faixa de preço opcional
+     * - limit: quantidade máxima de resultados (limitado a app.pagination.max-limit)
+     * 
+     * COM POSTGRESQL (extensão pg_trgm):
+     * - Executa: SELECT ... FROM products WHERE ? <% name AND price_in_cents BETWEEN ? AND ?
+     *   ORDER BY word_similarity(?, name) DESC, id LIMIT ?
+     * - O índice GIN de trigramas (idx_products_name_trgm) encontra os nomes
+     *   parecidos sem percorrer a tabela, mesmo com milhões de produtos
+     * - Os resultados vêm do mais parecido com o termo para o menos parecido
+     * 
+     * O catálogo não precisa ser baixado inteiro para filtrar no cliente.
+     * Termo vazio ou faixa de preço invertida retornam HTTP 400.
+     */
+    @Operation(summary = "Buscar produtos por nome", description = "Retorna os produtos com nome parecido com o termo, ordenados por similaridade")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Produtos encontrados (lista vazia se nenhum)"),
+        @ApiResponse(responseCode = "400", description = "Termo ou faixa de preço inválidos")
+    })
+    @GetMapping("/search") // Mapeia GET /products/search (tem prioridade sobre /{id} por ser um caminho fixo)
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+            @Parameter(description = "Termo de busca", required = true) @RequestParam String q,
+            @Parameter(description = "Preço mínimo em centavos") @RequestParam(required = false) Integer minPriceInCents,
+            @Parameter(description = "Preço máximo em centavos") @RequestParam(required = false) Integer maxPriceInCents,
+            @Parameter(description = "Quantidade máxima de resultados") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.search(q, minPriceInCents, maxPriceInCents, pagination.clamp(limit)));
+    }
+
+    /**
+     * READ - Autocomplete de nomes de produtos
+     * 
+     * Endpoint: GET http://localhost:8080/products/autocomplete?prefix=cad&limit=10
+     * 
+     * Chamado a cada tecla digitada, então NÃO consulta o PostgreSQL: responde
+     * do índice em memória (ProductNameIndex), montado na inicialização e
+     * atualizado a cada criação, alteração e exclusão de produto.
      * 
-     * O Spring automaticamente serializa a List<Product> em JSON:
+     * @RequestParam:
+     * - prefix: início de qualquer palavra do nome, sem diferenciar maiúsculas
+     *   nem acentos ("cad", "gam", "cadeira gam" encontram "Cadeira Gamer")
+     * - limit: quantidade máxima de sugestões (limitado a app.pagination.max-limit)
+     * 
+     * Exemplo de resposta:
      * [
-     *   {"id": 1, "name": "Notebook", "priceInCents": 250000},
-     *   {"id": 2, "name": "Mouse", "priceInCents": 5000}
+     *   {"id": 1, "name": "Cadeira Gamer"},
+     *   {"id": 7, "name": "Cadeira de escritório"}
      * ]
+     * 
+     * Prefixo vazio retorna uma lista vazia. Para buscar com erros de
+     * digitação ou filtrar por preço, use GET /products/search.
      */
-    @Operation(summary = "Listar todos os produtos", description = "Retorna uma lista com todos os produtos cadastrados")
-    @ApiResponse(responseCode = "200", description = "Lista de produtos retornada com sucesso")
-    @GetMapping // Mapeia requisições HTTP GET para /products
-    public ResponseEntity<List<Product>> getAllProducts() {
-        // Busca todos os produtos no banco PostgreSQL
-        // findAll() executa: SELECT * FROM products
-        // Retorna uma List com todos os registros da tabela
-        List<Product> products = productRepository.findAll();
-        
-        // Retorna HTTP 200 (OK) com a lista de produtos em JSON
-        return ResponseEntity.ok(products);
+    @Operation(summary = "Autocomplete de produtos", description = "Sugere produtos cujo nome tem uma palavra que começa com o prefixo (índice em memória)")
+    @ApiResponse(responseCode = "200", description = "Sugestões retornadas (lista vazia se nenhuma)")
+    @GetMapping("/autocomplete") // Mapeia GET /products/autocomplete
+    public ResponseEntity<List<ProductSuggestionDTO>> autocompleteProducts(
+            @Parameter(description = "Início do nome (ou de uma palavra do nome)", required = true) @RequestParam String prefix,
+            @Parameter(description = "Quantidade máxima de sugestões") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productNameIndex.suggest(prefix, pagination.clamp(limit)));
     }
 
     /**
@@ -195,16 +327,21 @@ public class ProductController {
      * 
      * @PathVariable: Extrai o valor {id} da URL e injeta no parâmetro Long id
      * 
-     * COM POSTGRESQL:
-     * - Executa: SELECT * FROM products WHERE id = ?
-     * - Usa prepared statements (proteção contra SQL injection)
+     * COM CACHE (ProductService, cache "products"):
+     * - Se o produto estiver no cache, responde da memória, sem ir ao banco
+     * - Senão executa: SELECT id, name, price_in_cents FROM products WHERE id = ?
+     *   e guarda o resultado no cache para as próximas leituras
+     * - Produtos inexistentes não são guardados (cada tentativa vai ao banco)
      * 
-     * findById(): Retorna um Optional<Product>
-     * - Se encontrar: Optional contém o Product
+     * findById(): Retorna um Optional<ProductDTO>
+     * - Se encontrar: Optional contém o produto
      * - Se não encontrar: Optional vazio
      * 
      * orElseThrow(): Se o Optional estiver vazio, lança uma exceção
      * O GlobalExceptionHandler captura essa exceção e retorna HTTP 404
+     * 
+     * ETag: o header da resposta traz a versão do produto (ex: ETag: "3"),
+     * que o cliente devolve no If-Match do PUT /products/{id}
      */
     @Operation(summary = "Buscar produto por ID", description = "Retorna um produto específico pelo seu ID")
     @ApiResponses(value = {
@@ -212,20 +349,113 @@ public class ProductController {
         @ApiResponse(responseCode = "404", description = "Produto não encontrado")
     })
     @GetMapping("/{id}") // Mapeia GET /products/{id} - {id} é uma variável de caminho
-    public ResponseEntity<Product> getProductById(
+    public ResponseEntity<ProductDTO> getProductById(
             @Parameter(description = "ID do produto", required = true) @PathVariable Long id) {
-        // Busca o produto pelo ID no PostgreSQL
-        // findById() executa: SELECT * FROM products WHERE id = ?
-        // Retorna Optional<Product>:
-        // - Se encontrar: Optional<Product> com o produto
+        // Busca o produto pelo ID no cache ou, se ausente, no PostgreSQL
+        // Retorna Optional<ProductDTO>:
+        // - Se encontrar: Optional<ProductDTO> com o produto
         // - Se não encontrar: Optional.empty()
-        Product product = productRepository.findById(id)
+        ProductDTO product = productService.findById(id)
                 // Se não encontrar, lança RuntimeException
                 // O GlobalExceptionHandler captura e retorna HTTP 404
                 .orElseThrow(() -> new RuntimeException("Produto não encontrado"));
         
-        // Retorna HTTP 200 (OK) com o produto encontrado
-        return ResponseEntity.ok(product);
+        // Retorna HTTP 200 (OK) com o produto encontrado e a versão no header ETag
+        return ResponseEntity.ok().eTag(ETags.of(product.version())).body(product);
+    }
+
+    /**
+     * READ - Listar as linhas de pedido de um produto (paginado por cursor)
+     * 
+     * Endpoint: GET http://localhost:8080/products/1/order-items?after=0&limit=20
+     * 
+     * O histórico de vendas fica fora do catálogo: GET /products e
+     * GET /products/{id} retornam apenas os campos do produto, e quem
+     * precisa das vendas busca aqui, página por página.
+     * 
+     * COM POSTGRESQL:
+     * - Executa: SELECT ... FROM order_items i JOIN orders o ... WHERE i.product_id = ? AND i.id > ? ORDER BY i.id LIMIT ?
+     * - O índice idx_order_items_product_id (product_id, id) atende o filtro,
+     *   o cursor e a ordenação, sem ler as vendas dos outros produtos
+     * 
+     * Se o produto não existir, retorna HTTP 404
+     */
+    @Operation(summary = "Listar itens de pedido do produto", description = "Retorna uma página das linhas de pedido que contêm o produto, ordenada por ID (paginação por cursor)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de itens de pedido retornada com sucesso"),
+        @ApiResponse(responseCode = "404", description = "Produto não encontrado")
+    })
+    @GetMapping("/{id}/order-items") // Mapeia GET /products/{id}/order-items
+    public ResponseEntity<CursorPage<ProductOrderItemDTO>> getProductOrderItems(
+            @Parameter(description = "ID do produto", required = true) @PathVariable Long id,
+            @Parameter(description = "ID do último item da página anterior") @RequestParam(defaultValue = "0") Long after,
+            @Parameter(description = "Quantidade de itens por página") @RequestParam(required = false) Integer limit) {
+        // Diferencia "produto sem vendas" (página vazia) de "produto inexistente" (404)
+        if (!productRepository.existsById(id)) {
+            throw new RuntimeException("Produto não encontrado");
+        }
+
+        Slice<ProductOrderItemDTO> items = orderItemRepository.findPageByProductIdAfter(id, after, pagination.keyset(limit));
+        return ResponseEntity.ok(CursorPage.of(items, ProductOrderItemDTO::id));
+    }
+
+    /**
+     * READ - Consultar o estoque disponível de um produto
+     * 
+     * Endpoint: GET http://localhost:8080/products/1/stock
+     * 
+     * O estoque fica em dois lugares (ver StockService):
+     * - products.stock_quantity no PostgreSQL
+     * - as unidades já retiradas do banco por esta instância para reservas
+     *   rápidas e ainda não vendidas (contador em memória)
+     * O saldo retornado é a soma dos dois. stockQuantity null indica um
+     * produto sem controle de estoque.
+     * 
+     * COM POSTGRESQL:
+     * - Executa: SELECT stock_quantity FROM products WHERE id = ?
+     * 
+     * Se o produto não existir, retorna HTTP 404
+     */
+    @Operation(summary = "Consultar estoque do produto", description = "Retorna o estoque disponível do produto (null se o produto não tem controle de estoque)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estoque retornado com sucesso"),
+        @ApiResponse(responseCode = "404", description = "Produto não encontrado")
+    })
+    @GetMapping("/{id}/stock") // Mapeia GET /products/{id}/stock
+    public ResponseEntity<ProductStockDTO> getProductStock(
+            @Parameter(description = "ID do produto", required = true) @PathVariable Long id) {
+        return ResponseEntity.ok(stockService.findStock(id));
+    }
+
+    /**
+     * UPDATE - Dar entrada de estoque em um produto
+     * 
+     * Endpoint: POST http://localhost:8080/products/1/stock
+     * Exemplo de JSON esperado:
+     * {
+     *   "quantity": 50
+     * }
+     * 
+     * A entrada é somada ao estoque atual em um único UPDATE, sem ler o saldo
+     * antes: entradas e pedidos simultâneos não se sobrescrevem. Um produto sem
+     * controle de estoque passa a ter estoque a partir desta entrada.
+     * 
+     * COM POSTGRESQL:
+     * - Executa: UPDATE products SET stock_quantity = coalesce(stock_quantity, 0) + ? WHERE id = ? RETURNING stock_quantity
+     * 
+     * Se o produto não existir, retorna HTTP 404
+     */
+    @Operation(summary = "Dar entrada de estoque", description = "Soma a quantidade ao estoque do produto e retorna o estoque disponível")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Entrada registrada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Quantidade inválida"),
+        @ApiResponse(responseCode = "404", description = "Produto não encontrado")
+    })
+    @PostMapping("/{id}/stock") // Mapeia POST /products/{id}/stock
+    public ResponseEntity<ProductStockDTO> addProductStock(
+            @Parameter(description = "ID do produto", required = true) @PathVariable Long id,
+            @Valid @RequestBody StockAdjustmentDTO adjustment) {
+        return ResponseEntity.ok(stockService.restock(id, adjustment.getQuantity()));
     }
 
     /**
@@ -245,6 +475,17 @@ public class ProductController {
      * 1. Busca o produto existente no banco
      * 2. Atualiza os campos com os novos valores
      * 3. Salva novamente (o JPA detecta que é update porque o ID existe)
+     * 4. Grava o produto atualizado no cache depois do commit, para que as próximas
+     *    leituras vejam os novos valores (uma versão mais antiga nunca substitui a nova)
+     * 
+     * CONCORRÊNCIA OTIMISTA (@Version):
+     * - O UPDATE inclui a versão lida: UPDATE products SET ..., version = 4 WHERE id = ? AND version = 3
+     * - Com o header If-Match: "3" (ETag do GET), a atualização só é aplicada se
+     *   o produto ainda estiver na versão 3; senão retorna HTTP 412 (Precondition Failed)
+     *   e o cliente deve ler o produto de novo antes de gravar
+     * - Sem If-Match, se outra requisição gravar entre a leitura e o UPDATE,
+     *   a atualização é repetida no servidor (até app.concurrency.retry.max-attempts
+     *   vezes, depois HTTP 409)
      * 
      * @Valid: Valida os dados do produtoDetails antes de atualizar
      * 
@@ -255,29 +496,22 @@ public class ProductController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Produto atualizado com sucesso"),
         @ApiResponse(responseCode = "404", description = "Produto não encontrado"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+        @ApiResponse(responseCode = "409", description = "Conflito com atualizações simultâneas"),
+        @ApiResponse(responseCode = "412", description = "O produto mudou desde a versão do If-Match")
     })
     @PutMapping("/{id}") // Mapeia requisições HTTP PUT para /products/{id}
-    public ResponseEntity<Product> updateProduct(
+    public ResponseEntity<ProductDTO> updateProduct(
             @Parameter(description = "ID do produto", required = true) @PathVariable Long id, 
+            @Parameter(description = "ETag lido em GET /products/{id}; a atualização só é aplicada se o produto não mudou") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody Product productDetails) {
-        // Busca o produto existente no banco PostgreSQL
+        // Atualiza nome e preço no PostgreSQL e grava a nova versão no cache
         // Se não encontrar, lança exceção (tratada pelo GlobalExceptionHandler)
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Produto não encontrado"));
-
-        // Atualiza os campos do produto existente com os novos valores
-        // Não atualizamos o ID (chave primária não deve ser alterada)
-        product.setName(productDetails.getName()); // Atualiza o nome
-        product.setPriceInCents(productDetails.getPriceInCents()); // Atualiza o preço
-
-        // Salva o produto atualizado no PostgreSQL
-        // O JPA detecta que o ID já existe e faz UPDATE ao invés de INSERT
-        // Executa: UPDATE products SET name = ?, price_in_cents = ? WHERE id = ?
-        Product updatedProduct = productRepository.save(product);
+        // Executa: UPDATE products SET name = ?, price_in_cents = ?, version = ? WHERE id = ? AND version = ?
+        ProductDTO updatedProduct = productService.update(id, productDetails, ETags.parseIfMatch(ifMatch));
         
-        // Retorna HTTP 200 (OK) com o produto atualizado
-        return ResponseEntity.ok(updatedProduct);
+        // Retorna HTTP 200 (OK) com o produto atualizado e a nova versão no header ETag
+        return ResponseEntity.ok().eTag(ETags.of(updatedProduct.version())).body(updatedProduct);
     }
 
     /**
@@ -288,36 +522,33 @@ public class ProductController {
      * @DeleteMapping("/{id}"): Mapeia requisições HTTP DELETE
      * 
      * COM POSTGRESQL:
-     * - Verifica: SELECT COUNT(*) FROM products WHERE id = ?
-     * - Deleta: DELETE FROM products WHERE id = ?
+     * - Deleta: DELETE FROM products WHERE id = ? (um único comando, sem SELECT antes)
      * - O registro é removido permanentemente do banco
+     * - A entrada do produto é removida do cache
+     * - Nenhuma linha deletada: o produto não existe (HTTP 404)
+     * 
+     * HISTÓRICO DE VENDAS:
+     * - Um produto que já aparece em pedidos NÃO é deletado: a chave estrangeira
+     *   de order_items recusa o DELETE e a resposta é HTTP 409 (Conflict)
+     * - Assim os pedidos antigos nunca perdem os seus itens
      * 
      * ResponseEntity<Void>: Retorna resposta sem corpo (apenas status HTTP)
      * 
      * noContent(): Retorna HTTP 204 (No Content) - padrão para DELETE bem-sucedido
-     * 
-     * existsById(): Verifica se o produto existe antes de deletar
-     * Evita exceções desnecessárias se o ID não existir
      */
     @Operation(summary = "Deletar produto", description = "Remove um produto do sistema pelo ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Produto deletado com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Produto não encontrado")
+        @ApiResponse(responseCode = "404", description = "Produto não encontrado"),
+        @ApiResponse(responseCode = "409", description = "O produto tem pedidos e não pode ser deletado")
     })
     @DeleteMapping("/{id}") // Mapeia requisições HTTP DELETE para /products/{id}
     public ResponseEntity<Void> deleteProduct(
             @Parameter(description = "ID do produto", required = true) @PathVariable Long id) {
-        // Verifica se o produto existe no PostgreSQL antes de tentar deletar
-        // Executa: SELECT COUNT(*) FROM products WHERE id = ?
-        // Se não existir, lança exceção (retorna HTTP 404)
-        if (!productRepository.existsById(id)) {
-            throw new RuntimeException("Produto não encontrado");
-        }
-        
-        // Deleta o produto do banco PostgreSQL
-        // deleteById() executa: DELETE FROM products WHERE id = ?
-        // Remove o registro permanentemente da tabela
-        productRepository.deleteById(id);
+        // Deleta do PostgreSQL e remove do cache
+        // Se não existir, lança exceção (retorna HTTP 404); se tiver pedidos, HTTP 409
+        // Executa: DELETE FROM products WHERE id = ?
+        productService.delete(id);
         
         // Retorna HTTP 204 (No Content) - resposta sem corpo
         // Indica que a operação foi bem-sucedida, mas não há conteúdo para retornar
@@ -0,0 +1,30 @@
+package com.example.projeto_postgres.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para criar vários pedidos em uma requisição (POST /orders/batch)
+ *
+ * Os pedidos não são validados aqui com @Valid: um pedido inválido não deve
+ * rejeitar o lote inteiro, então cada um é validado pelo OrderBatchService e
+ * o erro aparece no resultado daquele pedido.
+ */
+public class CreateOrderBatchDTO {
+    public static final int MAX_ORDERS = 10_000;
+
+    @NotEmpty(message = "O lote deve ter pelo menos um pedido")
+    @Size(max = MAX_ORDERS, message = "O lote pode ter no máximo " + MAX_ORDERS + " pedidos")
+    private List<CreateOrderDTO> orders = new ArrayList<>();
+
+    public List<CreateOrderDTO> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<CreateOrderDTO> orders) {
+        this.orders = orders;
+    }
+}
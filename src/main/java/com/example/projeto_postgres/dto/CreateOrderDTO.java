@@ -0,0 +1,36 @@
+package com.example.projeto_postgres.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para criar um pedido com itens
+ */
+public class CreateOrderDTO {
+    @NotNull(message = "O ID do cliente é obrigatório")
+    private Long customerId;
+
+    @Valid
+    @NotEmpty(message = "O pedido deve ter pelo menos um item")
+    private List<OrderItemDTO> items = new ArrayList<>();
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public List<OrderItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemDTO> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.projeto_postgres.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem paginada por cursor
+ *
+ * Para buscar a próxima página, envie nextCursor no parâmetro "after".
+ * Quando hasNext é false, nextCursor é null.
+ *
+ * Exemplo:
+ * {
+ *   "items": [...],
+ *   "nextCursor": 42,
+ *   "hasNext": true
+ * }
+ */
+public record CursorPage<T>(List<T> items, Long nextCursor, boolean hasNext) {
+
+    /**
+     * Monta a página a partir de um Slice, usando o ID do último item como cursor
+     */
+    public static <T> CursorPage<T> of(Slice<T> slice, Function<T, Long> idExtractor) {
+        List<T> items = slice.getContent();
+        Long nextCursor = slice.hasNext() ? idExtractor.apply(items.get(items.size() - 1)) : null;
+        return new CursorPage<>(items, nextCursor, slice.hasNext());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.projeto_postgres.dto;
+
+import com.example.projeto_postgres.model.Customer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Modelo de leitura de cliente (dados de perfil, sem pedidos)
+ *
+ * Preenchido direto pela consulta (projeção por construtor no CustomerRepository).
+ * O resumo de pedidos só é preenchido com ?include=orderSummary; sem ele o
+ * campo fica fora do JSON. A versão não vai no JSON: é enviada como ETag em
+ * GET /customers/{id}.
+ */
+public record CustomerDTO(
+        Long id,
+        String name,
+        String email,
+        String phone,
+        String address,
+        @JsonInclude(JsonInclude.Include.NON_NULL) CustomerOrderSummaryDTO orderSummary,
+        @JsonIgnore Long version) {
+
+    /**
+     * Construtor usado pela projeção JPQL (apenas perfil)
+     */
+    public CustomerDTO(Long id, String name, String email, String phone, String address, Long version) {
+        this(id, name, email, phone, address, null, version);
+    }
+
+    public static CustomerDTO from(Customer customer) {
+        return new CustomerDTO(customer.getId(), customer.getName(), customer.getEmail(),
+                customer.getPhone(), customer.getAddress(), customer.getVersion());
+    }
+
+    public CustomerDTO withOrderSummary(CustomerOrderSummaryDTO orderSummary) {
+        return new CustomerDTO(id, name, email, phone, address, orderSummary, version);
+    }
+}
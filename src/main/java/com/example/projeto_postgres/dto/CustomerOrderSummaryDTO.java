@@ -0,0 +1,23 @@
+package com.example.projeto_postgres.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Resumo dos pedidos de um cliente: quantidade de pedidos e total gasto (em centavos)
+ *
+ * Calculado por uma única consulta agrupada por cliente (OrderRepository) para
+ * todos os clientes de uma página. Pedidos cancelados contam como pedido, mas
+ * não entram no total gasto.
+ */
+public record CustomerOrderSummaryDTO(
+        @JsonIgnore Long customerId,
+        Long orderCount,
+        Long totalSpent) {
+
+    /**
+     * Resumo de um cliente sem pedidos (não aparece no resultado do GROUP BY)
+     */
+    public static CustomerOrderSummaryDTO empty(Long customerId) {
+        return new CustomerOrderSummaryDTO(customerId, 0L, 0L);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.projeto_postgres.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * DTO do upsert de cliente por email (PUT /customers/by-email/{email})
+ *
+ * O email vem do caminho; o corpo traz os dados gravados tanto na criação
+ * quanto na atualização.
+ */
+public class CustomerUpsertDTO {
+    @NotBlank(message = "O nome do cliente não pode estar vazio")
+    private String name;
+
+    private String phone;
+
+    private String address;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.projeto_postgres.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Resposta da criação de pedidos em lote
+ *
+ * Um resultado por pedido, na ordem do lote: o ID criado ou o erro daquele pedido.
+ */
+public record OrderBatchResultDTO(
+        int created,
+        int failed,
+        List<Result> results) {
+
+    public static OrderBatchResultDTO of(List<Result> results) {
+        int created = (int) results.stream().filter(result -> result.id() != null).count();
+        return new OrderBatchResultDTO(created, results.size() - created, results);
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result(
+            int index,
+            Long id,
+            String error) {
+
+        public static Result created(int index, Long id) {
+            return new Result(index, id, null);
+        }
+
+        public static Result failed(int index, String error) {
+            return new Result(index, null, error);
+        }
+    }
+}
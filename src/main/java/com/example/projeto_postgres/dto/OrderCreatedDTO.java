@@ -0,0 +1,29 @@
+package com.example.projeto_postgres.dto;
+
+import com.example.projeto_postgres.model.Order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resposta da criação de um pedido
+ *
+ * Montada apenas com os dados que a criação já tem em mãos (produtos carregados
+ * e ID do cliente), sem precisar carregar o cliente para serializar a resposta.
+ */
+public record OrderCreatedDTO(
+        Long id,
+        Long customerId,
+        LocalDateTime orderDate,
+        Order.OrderStatus status,
+        List<Item> items,
+        Long totalAmount) {
+
+    public record Item(
+            Long productId,
+            String productName,
+            Integer quantity,
+            Integer unitPriceInCents,
+            Long subtotal) {
+    }
+}
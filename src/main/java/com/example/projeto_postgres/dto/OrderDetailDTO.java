@@ -0,0 +1,24 @@
+package com.example.projeto_postgres.dto;
+
+import com.example.projeto_postgres.model.Order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Detalhe de um pedido: resumo do pedido e seus itens
+ */
+public record OrderDetailDTO(
+        Long id,
+        Long customerId,
+        String customerName,
+        LocalDateTime orderDate,
+        Order.OrderStatus status,
+        List<OrderItemDetailDTO> items,
+        Long totalAmount) {
+
+    public static OrderDetailDTO of(OrderSummaryDTO summary, List<OrderItemDetailDTO> items) {
+        return new OrderDetailDTO(summary.id(), summary.customerId(), summary.customerName(),
+                summary.orderDate(), summary.status(), items, summary.totalAmount());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.projeto_postgres.dto;
+
+import com.example.projeto_postgres.model.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha da consulta de exportação: um item de pedido com os dados do pedido
+ *
+ * A consulta (OrderRepository.streamForExport) retorna as linhas ordenadas por
+ * pedido e item; o OrderExportService junta as linhas consecutivas de um mesmo
+ * pedido em um OrderDetailDTO. Em pedidos sem itens, os campos do item são nulos.
+ */
+public record OrderExportRowDTO(
+        Long orderId,
+        Long customerId,
+        String customerName,
+        LocalDateTime orderDate,
+        Order.OrderStatus status,
+        Long totalAmount,
+        Long itemId,
+        Long productId,
+        String productName,
+        Integer quantity,
+        Integer unitPriceInCents) {
+}
@@ -0,0 +1,31 @@
+package com.example.projeto_postgres.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Linha de progresso da importação de pedidos (POST /orders/import)
+ *
+ * Uma linha é escrita a cada bloco gravado, com os totais acumulados e os erros
+ * daquele bloco; a última linha tem done = true. Se a leitura do arquivo não
+ * puder continuar (JSON malformado), a última linha traz o erro e os blocos
+ * anteriores continuam gravados.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderImportProgressDTO(
+        long processed,
+        long created,
+        long failed,
+        List<LineError> errors,
+        boolean done,
+        String error) {
+
+    /**
+     * Erro de um pedido; line é a linha do arquivo (a partir de 1)
+     */
+    public record LineError(
+            long line,
+            String error) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.projeto_postgres.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Situação de um pedido recebido no modo assíncrono (app.orders.intake.mode=async)
+ *
+ * - QUEUED: aceito e na fila, ainda não gravado (perdido se a aplicação cair)
+ * - DURABLE: gravado no banco (commit feito); orderId é o ID do pedido
+ * - FAILED: não gravado; error traz o motivo (ex: cliente inexistente)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderIntakeStatusDTO(
+        String trackingId,
+        Status status,
+        Long orderId,
+        String error,
+        LocalDateTime acceptedAt,
+        LocalDateTime completedAt) {
+
+    public enum Status {
+        QUEUED,
+        DURABLE,
+        FAILED
+    }
+
+    public static OrderIntakeStatusDTO queued(String trackingId) {
+        return new OrderIntakeStatusDTO(trackingId, Status.QUEUED, null, null, LocalDateTime.now(), null);
+    }
+
+    public OrderIntakeStatusDTO durable(Long orderId) {
+        return new OrderIntakeStatusDTO(trackingId, Status.DURABLE, orderId, null, acceptedAt, LocalDateTime.now());
+    }
+
+    public OrderIntakeStatusDTO failed(String error) {
+        return new OrderIntakeStatusDTO(trackingId, Status.FAILED, null, error, acceptedAt, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.projeto_postgres.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * DTO para item do pedido
+ */
+public class OrderItemDTO {
+    @NotNull(message = "O ID do produto é obrigatório")
+    private Long productId;
+
+    @Positive(message = "A quantidade deve ser maior que zero")
+    @NotNull(message = "A quantidade é obrigatória")
+    private Integer quantity;
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.projeto_postgres.dto;
+
+/**
+ * Item de um pedido no detalhe do pedido
+ *
+ * Preenchido pela consulta de itens (OrderItemRepository), já com o nome e o preço do produto.
+ */
+public record OrderItemDetailDTO(
+        Long id,
+        Long productId,
+        String productName,
+        Integer quantity,
+        Integer unitPriceInCents,
+        Long subtotal) {
+
+    /**
+     * Construtor usado pela projeção JPQL; o subtotal é calculado a partir da quantidade e do preço
+     *
+     * Itens gravados antes da V3 ficam sem preço até o backfill (OrderTotalsBackfillRunner):
+     * o subtotal deles é null.
+     */
+    public OrderItemDetailDTO(Long id, Long productId, String productName, Integer quantity, Integer unitPriceInCents) {
+        this(id, productId, productName, quantity, unitPriceInCents,
+                unitPriceInCents == null ? null : (long) quantity * unitPriceInCents);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.projeto_postgres.dto;
+
+import com.example.projeto_postgres.model.Order;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Resposta da mudança de status em lote
+ *
+ * updated: pedidos que mudaram para o status pedido
+ * unchanged: pedidos que já estavam nesse status
+ * rejected: pedidos inexistentes ou cuja transição não é permitida
+ */
+public record OrderStatusBatchResultDTO(
+        Order.OrderStatus status,
+        List<Long> updated,
+        List<Long> unchanged,
+        List<Rejected> rejected) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Rejected(
+            Long id,
+            Order.OrderStatus currentStatus,
+            String error) {
+    }
+}
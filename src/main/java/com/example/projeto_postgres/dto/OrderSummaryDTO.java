@@ -0,0 +1,33 @@
+package com.example.projeto_postgres.dto;
+
+import com.example.projeto_postgres.model.Order;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumo de pedido usado nas listagens
+ *
+ * Lido em uma única consulta (OrderRepository): dados do pedido, nome do
+ * cliente e a quantidade de itens e o valor total gravados no pedido.
+ * A versão só é lida na busca por ID (enviada como ETag, fora do JSON); as
+ * listagens não a leem, para continuar no índice de cobertura dos pedidos.
+ */
+public record OrderSummaryDTO(
+        Long id,
+        Long customerId,
+        String customerName,
+        LocalDateTime orderDate,
+        Order.OrderStatus status,
+        Integer itemCount,
+        Long totalAmount,
+        @JsonIgnore Long version) {
+
+    /**
+     * Construtor usado pelas listagens (sem versão)
+     */
+    public OrderSummaryDTO(Long id, Long customerId, String customerName, LocalDateTime orderDate,
+                           Order.OrderStatus status, Integer itemCount, Long totalAmount) {
+        this(id, customerId, customerName, orderDate, status, itemCount, totalAmount, null);
+    }
+}
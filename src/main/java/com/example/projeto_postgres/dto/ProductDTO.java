@@ -0,0 +1,18 @@
+package com.example.projeto_postgres.dto;
+
+import com.example.projeto_postgres.model.Product;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Modelo de leitura de produto
+ *
+ * Contém apenas os campos de catálogo; preenchido direto pela consulta
+ * (projeção por construtor no ProductRepository), sem carregar a entidade.
+ * A versão não vai no JSON: é enviada como ETag em GET /products/{id}.
+ */
+public record ProductDTO(Long id, String name, Integer priceInCents, @JsonIgnore Long version) {
+
+    public static ProductDTO from(Product product) {
+        return new ProductDTO(product.getId(), product.getName(), product.getPriceInCents(), product.getVersion());
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.projeto_postgres.dto;
+
+import com.example.projeto_postgres.model.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha de pedido que contém um produto (histórico de vendas do produto)
+ *
+ * Preenchida pela consulta paginada de OrderItemRepository, com a data e o status do pedido.
+ */
+public record ProductOrderItemDTO(
+        Long id,
+        Long orderId,
+        LocalDateTime orderDate,
+        Order.OrderStatus orderStatus,
+        Integer quantity,
+        Integer unitPriceInCents,
+        Long subtotal) {
+
+    /**
+     * Construtor usado pela projeção JPQL; o subtotal é calculado a partir da quantidade e do preço
+     *
+     * Itens gravados antes da V3 ficam sem preço até o backfill (OrderTotalsBackfillRunner):
+     * o subtotal deles é null.
+     */
+    public ProductOrderItemDTO(Long id, Long orderId, LocalDateTime orderDate, Order.OrderStatus orderStatus,
+                               Integer quantity, Integer unitPriceInCents) {
+        this(id, orderId, orderDate, orderStatus, quantity, unitPriceInCents,
+                unitPriceInCents == null ? null : (long) quantity * unitPriceInCents);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.projeto_postgres.dto;
+
+/**
+ * Estoque disponível de um produto (nulo = produto sem controle de estoque)
+ */
+public record ProductStockDTO(Long productId, Integer stockQuantity) {
+}
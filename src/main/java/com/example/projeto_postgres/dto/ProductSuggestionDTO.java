@@ -0,0 +1,9 @@
+package com.example.projeto_postgres.dto;
+
+/**
+ * Sugestão do autocomplete de produtos (GET /products/autocomplete)
+ *
+ * Só ID e nome: vem do índice em memória, sem consultar o banco.
+ */
+public record ProductSuggestionDTO(Long id, String name) {
+}
@@ -0,0 +1,14 @@
+package com.example.projeto_postgres.dto;
+
+import java.util.List;
+
+/**
+ * Página de uma busca paginada por cursor (keyset)
+ *
+ * Como CursorPage, mas a busca não é ordenada só por ID: o cursor é um texto
+ * que leva a posição do último item (por exemplo, relevância e ID). Envie
+ * nextCursor no parâmetro "after" sem alterá-lo. Quando hasNext é false,
+ * nextCursor é null.
+ */
+public record SearchPage<T>(List<T> items, String nextCursor, boolean hasNext) {
+}
@@ -0,0 +1,38 @@
+package com.example.projeto_postgres.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para mudar o status de vários pedidos de uma vez (PUT /orders/status)
+ */
+public class UpdateOrderStatusBatchDTO {
+    public static final int MAX_ORDERS = 10_000;
+
+    @NotEmpty(message = "Informe pelo menos um pedido")
+    @Size(max = MAX_ORDERS, message = "O lote pode ter no máximo " + MAX_ORDERS + " pedidos")
+    private List<@NotNull(message = "Os IDs dos pedidos não podem ser nulos") Long> ids = new ArrayList<>();
+
+    @NotNull(message = "O status é obrigatório")
+    private String status;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -1,6 +1,11 @@
 // Declaração do pacote - organiza a classe no pacote de tratamento de exceções
 package com.example.projeto_postgres.exception;
 
+// Importa DataIntegrityViolationException
+// Lançada quando o banco recusa uma escrita por violar uma constraint
+// (ex: email duplicado, chave estrangeira inexistente)
+import org.springframework.dao.DataIntegrityViolationException;
+
 // Importa HttpStatus para códigos HTTP padronizados
 import org.springframework.http.HttpStatus;
 
@@ -20,6 +25,10 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 // Todas as exceções lançadas nos controllers serão capturadas aqui
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+// Importa ResponseStatusException
+// Exceção com um status HTTP próprio (ex: 422, 409), tratada separadamente do 404
+import org.springframework.web.server.ResponseStatusException;
+
 // Importa HashMap e Map para construir respostas JSON de erro
 import java.util.HashMap;
 import java.util.Map;
@@ -74,7 +83,7 @@ public class GlobalExceptionHandler {
      * 
      * COM POSTGRESQL:
      * - Também pode capturar erros de conexão com o banco
-     * - Pode tratar exceções de constraint violations (ex: chave duplicada)
+     * - Violações de constraints (ex: chave duplicada) têm handler próprio (409)
      */
     @ExceptionHandler(RuntimeException.class) // Trata exceções do tipo RuntimeException
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
@@ -92,6 +101,50 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    /**
+     * Trata ResponseStatusException
+     * 
+     * Usada quando o erro tem um status HTTP próprio, diferente do 404 das
+     * RuntimeExceptions (ex: 422 ao reutilizar um Idempotency-Key com outro conteúdo).
+     * Por ser mais específico, este handler tem prioridade sobre o de RuntimeException.
+     * 
+     * Exemplo de resposta JSON:
+     * {
+     *   "message": "Idempotency-Key já usada com outro conteúdo de requisição",
+     *   "status": "422"
+     * }
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, String>> handleResponseStatusException(ResponseStatusException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getReason());
+        error.put("status", String.valueOf(ex.getStatusCode().value()));
+        return ResponseEntity.status(ex.getStatusCode()).body(error);
+    }
+
+    /**
+     * Trata violações de constraints do banco
+     * 
+     * O PostgreSQL recusou a escrita (ex: chave única duplicada): o conteúdo da
+     * requisição conflita com o estado atual dos dados, então a resposta é 409,
+     * e não o 404 do handler de RuntimeException. Os serviços que conhecem a
+     * constraint (ex: email do cliente) lançam antes uma ResponseStatusException
+     * com uma mensagem específica; aqui a mensagem é genérica, sem expor o SQL.
+     * 
+     * Exemplo de resposta JSON:
+     * {
+     *   "message": "A operação viola uma restrição dos dados",
+     *   "status": "409"
+     * }
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "A operação viola uma restrição dos dados");
+        error.put("status", String.valueOf(HttpStatus.CONFLICT.value()));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     /**
      * Trata exceções de validação (Bean Validation)
      * 
@@ -1,6 +1,6 @@
 package com.example.projeto_postgres.model;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -26,7 +26,8 @@ import java.util.List;
 public class Customer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "O nome do cliente não pode estar vazio")
@@ -44,16 +45,30 @@ public class Customer {
     @Column(length = 200)
     private String address;
 
+    /**
+     * Versão para a concorrência otimista: incrementada a cada UPDATE, exposta
+     * como ETag em GET /customers/{id} e comparada com If-Match no PUT
+     */
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
     /**
      * Relacionamento OneToMany com Pedidos
      * Um cliente pode ter vários pedidos
      * 
      * mappedBy = "customer": Indica que o relacionamento é gerenciado pela entidade Order
-     * cascade = CascadeType.ALL: Operações em Customer se propagam para Order
-     * orphanRemoval = true: Remove pedidos órfãos quando o cliente é removido
+     * 
+     * Sem cascade: excluir o cliente exclui os seus pedidos no próprio banco
+     * (ON DELETE CASCADE, migration V8), em um único DELETE, sem carregar a coleção
+     * 
+     * Os pedidos não fazem parte do perfil (@JsonIgnore): são lidos pelo endpoint
+     * paginado GET /orders/customer/{customerId}, e a contagem e o total gasto
+     * vêm de GET /customers?include=orderSummary
      */
-    @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, orphanRemoval = true)
-    @JsonIgnoreProperties("customer") // Evita loop infinito na serialização JSON
+    @OneToMany(mappedBy = "customer")
+    @JsonIgnore
     private List<Order> orders = new ArrayList<>();
 }
 
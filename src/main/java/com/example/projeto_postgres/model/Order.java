@@ -10,7 +10,9 @@ import lombok.Setter;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Entidade Pedido - Representa a tabela "orders" no banco PostgreSQL
@@ -26,7 +28,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -42,6 +45,9 @@ public class Order {
     /**
      * Relacionamento OneToMany com ItensPedido
      * Um pedido pode ter vários itens
+     * 
+     * O cascade grava os itens junto com o pedido; a exclusão é feita no
+     * banco (ON DELETE CASCADE, migration V8), sem carregar os itens
      */
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnoreProperties("order") // Evita loop infinito na serialização JSON
@@ -50,28 +56,103 @@ public class Order {
     @Column(nullable = false)
     private LocalDateTime orderDate = LocalDateTime.now();
 
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false, length = 20)
+    /**
+     * Gravado como SMALLINT (OrderStatus.code, migration V14), não como texto:
+     * 2 bytes por pedido, na tabela e nos índices que incluem o status
+     */
+    @Convert(converter = OrderStatusConverter.class)
+    @Column(nullable = false)
     private OrderStatus status = OrderStatus.PENDING;
 
     /**
-     * Calcula o valor total do pedido baseado nos itens
+     * Quantidade de itens e valor total do pedido (em centavos)
+     *
+     * Gravados junto com o pedido e mantidos por addItem, a partir do preço
+     * unitário congelado em cada item. As listagens leem estes campos direto
+     * da tabela orders, sem somar itens nem consultar products.
+     * Nulos apenas em pedidos antigos ainda não preenchidos pelo backfill.
      */
-    public Integer getTotalAmount() {
-        return items.stream()
-                .mapToInt(item -> item.getQuantity() * item.getProduct().getPriceInCents())
-                .sum();
+    @Column(name = "item_count")
+    private Integer itemCount = 0;
+
+    @Column(name = "total_amount_in_cents")
+    private Long totalAmountInCents = 0L;
+
+    /**
+     * Versão para a concorrência otimista, exposta como ETag em GET /orders/{id}
+     *
+     * As mudanças de status não passam pela entidade (OrderStatusService):
+     * o UPDATE incrementa a versão e, com If-Match, exige a versão informada.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Adiciona um item ao pedido e atualiza a quantidade de itens e o total
+     *
+     * O preço unitário do item (unitPriceInCents) deve estar preenchido.
+     */
+    public void addItem(OrderItem item) {
+        item.setOrder(this);
+        items.add(item);
+        itemCount = itemCount + 1;
+        totalAmountInCents = totalAmountInCents + item.getSubtotal();
     }
 
     /**
      * Enum para status do pedido
+     *
+     * Transições permitidas:
+     * PENDING -> CONFIRMED -> SHIPPED -> DELIVERED
+     * PENDING e CONFIRMED -> CANCELLED
+     * DELIVERED e CANCELLED são finais; nenhum pedido volta para PENDING.
+     *
+     * O código é o valor gravado na coluna orders.status: fixo por status,
+     * independente da ordem das constantes. Não reutilize nem altere um código.
      */
     public enum OrderStatus {
-        PENDING,    // Pendente
-        CONFIRMED,  // Confirmado
-        SHIPPED,    // Enviado
-        DELIVERED,  // Entregue
-        CANCELLED   // Cancelado
+        PENDING(0),    // Pendente
+        CONFIRMED(1),  // Confirmado
+        SHIPPED(2),    // Enviado
+        DELIVERED(3),  // Entregue
+        CANCELLED(4);  // Cancelado
+
+        private final short code;
+
+        OrderStatus(int code) {
+            this.code = (short) code;
+        }
+
+        public short getCode() {
+            return code;
+        }
+
+        public static OrderStatus fromCode(short code) {
+            for (OrderStatus status : values()) {
+                if (status.code == code) {
+                    return status;
+                }
+            }
+            throw new IllegalArgumentException("Código de status desconhecido: " + code);
+        }
+
+        /**
+         * Status a partir dos quais um pedido pode passar para este
+         */
+        public Set<OrderStatus> allowedSources() {
+            return switch (this) {
+                case PENDING -> EnumSet.noneOf(OrderStatus.class);
+                case CONFIRMED -> EnumSet.of(PENDING);
+                case SHIPPED -> EnumSet.of(CONFIRMED);
+                case DELIVERED -> EnumSet.of(SHIPPED);
+                case CANCELLED -> EnumSet.of(PENDING, CONFIRMED);
+            };
+        }
+
+        public boolean canTransitionTo(OrderStatus target) {
+            return target.allowedSources().contains(this);
+        }
     }
 }
 
@@ -13,7 +13,7 @@ import lombok.Setter;
  * Entidade ItemPedido - Representa a tabela "order_items" no banco PostgreSQL
  * 
  * Esta entidade representa o relacionamento muitos-para-muitos entre Pedido e Produto
- * com informações adicionais (quantidade)
+ * com informações adicionais (quantidade e preço unitário)
  */
 @Entity
 @Table(name = "order_items")
@@ -24,7 +24,8 @@ import lombok.Setter;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -52,10 +53,19 @@ public class OrderItem {
     private Integer quantity;
 
     /**
-     * Calcula o subtotal do item (quantidade * preço do produto)
+     * Preço unitário do produto (em centavos) no momento da criação do pedido
+     *
+     * Alterações posteriores no preço do produto não afetam pedidos já feitos.
      */
-    public Integer getSubtotal() {
-        return quantity * product.getPriceInCents();
+    @Column(name = "unit_price_in_cents")
+    private Integer unitPriceInCents;
+
+    /**
+     * Calcula o subtotal do item (quantidade * preço unitário congelado)
+     *
+     * Em long, como orders.total_amount_in_cents: o produto de dois int pode passar do limite de int.
+     */
+    public Long getSubtotal() {
+        return (long) quantity * unitPriceInCents;
     }
 }
-
@@ -0,0 +1,21 @@
+package com.example.projeto_postgres.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Converte Order.OrderStatus para o código SMALLINT da coluna orders.status e vice-versa
+ */
+@Converter
+public class OrderStatusConverter implements AttributeConverter<Order.OrderStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(Order.OrderStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public Order.OrderStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : Order.OrderStatus.fromCode(code);
+    }
+}
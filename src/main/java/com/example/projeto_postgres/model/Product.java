@@ -6,21 +6,26 @@ package com.example.projeto_postgres.model;
 // @Table: Especifica o nome da tabela no banco de dados
 // @Id: Marca o campo como chave primária
 // @GeneratedValue: Define como a chave primária será gerada
+// @SequenceGenerator: Define a sequence do PostgreSQL usada para gerar a chave
 // @Column: Define propriedades da coluna no banco de dados
 import jakarta.persistence.*;
 
 // Importa anotações de validação do Bean Validation
 // @NotBlank: Valida que o campo não seja nulo, vazio ou apenas espaços
 // @Positive: Valida que o número seja positivo (maior que zero)
+// @PositiveOrZero: Valida que o número seja maior ou igual a zero
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+// Importa @JsonIgnore do Jackson: exclui o campo do JSON (tanto na leitura quanto na escrita)
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 // Importa anotações do Lombok para reduzir código boilerplate
 // @Getter: Gera automaticamente métodos getters para todos os campos
 // @Setter: Gera automaticamente métodos setters para todos os campos
 // @AllArgsConstructor: Gera um construtor com todos os campos
 // @NoArgsConstructor: Gera um construtor sem argumentos (necessário para JPA)
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -42,7 +47,7 @@ import java.util.List;
  * - O JPA abstrai as diferenças entre bancos de dados
  * 
  * O Spring Data JPA usa esta entidade para:
- * - Criar automaticamente a tabela no PostgreSQL (se ddl-auto=update)
+ * - Validar a tabela criada pelas migrations do Flyway (ddl-auto=validate)
  * - Converter objetos Java em registros SQL
  * - Converter registros SQL em objetos Java
  * - Os dados são persistidos permanentemente no PostgreSQL
@@ -59,18 +64,21 @@ public class Product {
      * Campo ID - Chave primária da tabela
      * 
      * O @Id marca este campo como chave primária.
-     * O @GeneratedValue com strategy IDENTITY significa que o banco de dados
-     * gerará automaticamente o valor usando SERIAL (PostgreSQL) ou AUTO_INCREMENT (MySQL).
+     * O @GeneratedValue com strategy SEQUENCE faz o Hibernate buscar os IDs
+     * na sequence "products_seq" do PostgreSQL.
      * 
-     * No PostgreSQL:
-     * - A coluna será criada como SERIAL ou BIGSERIAL
-     * - O banco gera automaticamente valores sequenciais (1, 2, 3, ...)
+     * allocationSize = 50 (otimizador "pooled"):
+     * - Cada chamada a nextval reserva um bloco de 50 IDs
+     * - O Hibernate distribui os IDs do bloco em memória, sem ir ao banco
+     * - Como o ID é conhecido antes do INSERT, o Hibernate consegue agrupar
+     *   vários INSERTs em lotes JDBC (com IDENTITY isso é impossível, pois
+     *   cada INSERT precisa ser executado sozinho para obter o ID gerado)
      * 
-     * GenerationType.IDENTITY: O banco de dados gera o ID automaticamente
-     * Funciona tanto no H2 quanto no PostgreSQL!
+     * IMPORTANTE: o INCREMENT BY da sequence deve ser igual ao allocationSize
      */
     @Id // Marca este campo como chave primária da tabela
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Define que o ID será gerado automaticamente pelo banco
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq") // ID vem da sequence products_seq
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50) // Reserva blocos de 50 IDs por nextval
     private Long id; // Tipo Long para suportar IDs grandes
 
     /**
@@ -117,14 +125,59 @@ public class Product {
     @Column(nullable = false) // Define que a coluna é obrigatória (não aceita NULL)
     private Integer priceInCents; // Preço em centavos para evitar problemas de arredondamento
 
+    /**
+     * Campo StockQuantity - Estoque ainda não reservado
+     * 
+     * Nulo = produto sem controle de estoque (vende sem limite).
+     * 
+     * @PositiveOrZero: Valida que o valor informado na criação não seja negativo
+     * 
+     * @Column(updatable = false): o Hibernate grava o estoque só no INSERT.
+     * Depois disso ele muda apenas por UPDATEs atômicos do StockService
+     * (UPDATE products SET stock_quantity = stock_quantity - ? WHERE ... AND stock_quantity >= ?);
+     * se o PUT /products/{id} regravasse a coluna, desfaria as reservas feitas
+     * entre a leitura e a gravação do produto.
+     */
+    @PositiveOrZero(message = "O estoque não pode ser negativo") // Validação: número >= 0
+    @Column(name = "stock_quantity", updatable = false) // Gravado só na criação
+    private Integer stockQuantity; // Estoque disponível (nulo = sem controle)
+
+    /**
+     * Campo Version - Versão do registro (concorrência otimista)
+     * 
+     * @Version: o Hibernate incrementa a versão a cada UPDATE e inclui a versão
+     * lida no WHERE (UPDATE products SET ..., version = 2 WHERE id = ? AND version = 1).
+     * Se outra transação alterou o produto nesse meio tempo, nenhuma linha é
+     * atualizada e o Hibernate lança uma exceção, em vez de sobrescrever a
+     * alteração da outra transação sem avisar (lost update).
+     * 
+     * A versão é exposta como ETag em GET /products/{id} e comparada com o
+     * header If-Match em PUT /products/{id}.
+     * 
+     * @JsonIgnore: a versão é controlada pelo servidor, não é aceita no corpo da requisição
+     */
+    @Version // Controle de concorrência otimista
+    @Column(nullable = false) // Coluna BIGINT NOT NULL criada pela migration V6
+    @JsonIgnore // Não faz parte do corpo de POST/PUT
+    private Long version; // Nulo até o primeiro INSERT, quando o Hibernate grava 0
+
     /**
      * Relacionamento OneToMany com ItensPedido
      * Um produto pode estar em vários itens de pedido
      * 
      * mappedBy = "product": Indica que o relacionamento é gerenciado pela entidade OrderItem
+     * 
+     * O histórico de vendas NÃO faz parte do catálogo:
+     * - @JsonIgnore: nunca aparece no JSON do produto nem é aceito no corpo de POST/PUT
+     * - As linhas de pedido de um produto são lidas pelo endpoint paginado
+     *   GET /products/{id}/order-items (OrderItemRepository.findPageByProductIdAfter)
+     * 
+     * Sem cascade: o histórico de vendas nunca é apagado junto com o produto.
+     * A chave estrangeira de order_items impede deletar um produto que já foi
+     * vendido (HTTP 409)
      */
-    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
-    @JsonIgnoreProperties("product") // Evita loop infinito na serialização JSON
+    @OneToMany(mappedBy = "product")
+    @JsonIgnore // Catálogo sem histórico de vendas
     private List<OrderItem> orderItems = new ArrayList<>();
 }
 
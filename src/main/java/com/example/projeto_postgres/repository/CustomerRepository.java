@@ -1,9 +1,16 @@
 package com.example.projeto_postgres.repository;
 
+import com.example.projeto_postgres.dto.CustomerDTO;
 import com.example.projeto_postgres.model.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,8 +22,30 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByEmail(String email);
     
     /**
-     * Verifica se existe um cliente com o email informado
+     * Paginação por cursor (keyset): clientes com ID maior que o cursor,
+     * já como CustomerDTO (apenas dados de perfil)
      */
-    boolean existsByEmail(String email);
-}
+    @Query("select new com.example.projeto_postgres.dto.CustomerDTO(c.id, c.name, c.email, c.phone, c.address, c.version) "
+            + "from Customer c where c.id > :after")
+    Slice<CustomerDTO> findPageAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Busca um cliente por ID já como CustomerDTO
+     */
+    @Query("select new com.example.projeto_postgres.dto.CustomerDTO(c.id, c.name, c.email, c.phone, c.address, c.version) "
+            + "from Customer c where c.id = :id")
+    Optional<CustomerDTO> findDTOById(@Param("id") Long id);
+
+    /**
+     * Busca um cliente por email já como CustomerDTO
+     */
+    @Query("select new com.example.projeto_postgres.dto.CustomerDTO(c.id, c.name, c.email, c.phone, c.address, c.version) "
+            + "from Customer c where c.email = :email")
+    Optional<CustomerDTO> findDTOByEmail(@Param("email") String email);
 
+    /**
+     * Dos IDs informados, retorna apenas os que existem (uma única consulta)
+     */
+    @Query("select c.id from Customer c where c.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
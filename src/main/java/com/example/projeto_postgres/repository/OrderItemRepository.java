@@ -1,8 +1,14 @@
 package com.example.projeto_postgres.repository;
 
+import com.example.projeto_postgres.dto.OrderItemDetailDTO;
+import com.example.projeto_postgres.dto.ProductOrderItemDTO;
 import com.example.projeto_postgres.model.Order;
 import com.example.projeto_postgres.model.OrderItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -18,5 +24,24 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
      * Busca todos os itens de um pedido por ID
      */
     List<OrderItem> findByOrderId(Long orderId);
+
+    /**
+     * Itens de um pedido já com o nome do produto e o preço congelado no item (projeção por construtor)
+     */
+    @Query("select new com.example.projeto_postgres.dto.OrderItemDetailDTO(i.id, p.id, p.name, i.quantity, i.unitPriceInCents) "
+            + "from OrderItem i join i.product p where i.order.id = :orderId order by i.id")
+    List<OrderItemDetailDTO> findDetailsByOrderId(@Param("orderId") Long orderId);
+
+    /**
+     * Próxima página (por cursor) das linhas de pedido de um produto
+     *
+     * Percorre o índice idx_order_items_product_id (product_id, id), criado na
+     * migration V2: o filtro pelo produto e o cursor "id > :after" são
+     * resolvidos no mesmo índice
+     */
+    @Query("select new com.example.projeto_postgres.dto.ProductOrderItemDTO(i.id, o.id, o.orderDate, o.status, i.quantity, i.unitPriceInCents) "
+            + "from OrderItem i join i.order o where i.product.id = :productId and i.id > :after")
+    Slice<ProductOrderItemDTO> findPageByProductIdAfter(@Param("productId") Long productId, @Param("after") Long after,
+                                                        Pageable pageable);
 }
 
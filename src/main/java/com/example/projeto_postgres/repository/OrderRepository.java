@@ -1,11 +1,28 @@
 package com.example.projeto_postgres.repository;
 
+import com.example.projeto_postgres.dto.CustomerOrderSummaryDTO;
+import com.example.projeto_postgres.dto.OrderExportRowDTO;
+import com.example.projeto_postgres.dto.OrderSummaryDTO;
 import com.example.projeto_postgres.model.Customer;
 import com.example.projeto_postgres.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -18,5 +35,72 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * Busca todos os pedidos de um cliente por ID
      */
     List<Order> findByCustomerId(Long customerId);
-}
 
+    /**
+     * Paginação por cursor (keyset): resumos dos pedidos com ID maior que o cursor
+     *
+     * Uma única consulta traz pedido, cliente, quantidade de itens e total (gravados
+     * em orders, sem somar itens); o LIMIT é aplicado no banco e nenhuma entidade
+     * é carregada.
+     */
+    @Query(SUMMARY_SELECT + "where o.id > :after ")
+    Slice<OrderSummaryDTO> findSummariesAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Paginação por cursor (keyset): resumos dos pedidos de um cliente com ID maior que o cursor
+     */
+    @Query(SUMMARY_SELECT + "where c.id = :customerId and o.id > :after ")
+    Slice<OrderSummaryDTO> findSummariesByCustomerAfter(@Param("customerId") Long customerId,
+                                                        @Param("after") Long after,
+                                                        Pageable pageable);
+
+    /**
+     * Resumo de um pedido por ID, com a versão (ETag)
+     */
+    @Query("select new com.example.projeto_postgres.dto.OrderSummaryDTO("
+            + "o.id, c.id, c.name, o.orderDate, o.status, o.itemCount, o.totalAmountInCents, o.version) "
+            + "from Order o join o.customer c where o.id = :id")
+    Optional<OrderSummaryDTO> findSummaryById(@Param("id") Long id);
+
+    /**
+     * Quantidade de pedidos e total gasto de cada cliente, em uma única consulta agrupada
+     *
+     * Clientes sem pedidos não aparecem no resultado. O total ignora pedidos cancelados.
+     */
+    @Query("select new com.example.projeto_postgres.dto.CustomerOrderSummaryDTO(o.customer.id, count(o.id), "
+            + "coalesce(sum(case when o.status <> com.example.projeto_postgres.model.Order.OrderStatus.CANCELLED "
+            + "then o.totalAmountInCents else 0 end), 0)) "
+            + "from Order o "
+            + "where o.customer.id in :customerIds group by o.customer.id")
+    List<CustomerOrderSummaryDTO> findCustomerOrderSummaries(@Param("customerIds") Collection<Long> customerIds);
+
+    /**
+     * Itens de pedido para exportação, em streaming, ordenados por pedido e item
+     *
+     * O driver do PostgreSQL só usa cursor (busca em blocos de EXPORT_FETCH_SIZE
+     * linhas) dentro de uma transação; sem fetch size ele carrega o resultado
+     * inteiro na memória. Deve ser consumido dentro de uma transação e fechado.
+     * Filtros nulos são ignorados.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.projeto_postgres.dto.OrderExportRowDTO("
+            + "o.id, c.id, c.name, o.orderDate, o.status, o.totalAmountInCents, "
+            + "i.id, p.id, p.name, i.quantity, i.unitPriceInCents) "
+            + "from Order o join o.customer c left join o.items i left join i.product p "
+            + "where (cast(:from as LocalDateTime) is null or o.orderDate >= :from) "
+            + "and (cast(:to as LocalDateTime) is null or o.orderDate < :to) "
+            + "and (:status is null or o.status = :status) "
+            + "order by o.id, i.id")
+    Stream<OrderExportRowDTO> streamForExport(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("status") Order.OrderStatus status);
+
+    String EXPORT_FETCH_SIZE = "1000";
+
+    String SUMMARY_SELECT = "select new com.example.projeto_postgres.dto.OrderSummaryDTO("
+            + "o.id, c.id, c.name, o.orderDate, o.status, o.itemCount, o.totalAmountInCents) "
+            + "from Order o join o.customer c ";
+}
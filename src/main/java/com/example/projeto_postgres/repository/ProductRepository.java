@@ -2,18 +2,33 @@
 package com.example.projeto_postgres.repository;
 
 // Importa a entidade Product que será gerenciada por este repositório
+// e o modelo de leitura ProductDTO, preenchido direto pelas consultas
+import com.example.projeto_postgres.dto.ProductDTO;
 import com.example.projeto_postgres.model.Product;
 
+// Importa Pageable e Slice para paginação
+// Slice busca "limit + 1" linhas para saber se existe próxima página, sem executar COUNT(*)
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
 // Importa JpaRepository do Spring Data JPA
 // JpaRepository é uma interface que fornece métodos prontos para operações CRUD
 // sem precisar implementar SQL manualmente
 import org.springframework.data.jpa.repository.JpaRepository;
 
+// Importa @Query e @Param para consultas JPQL escritas à mão
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 // Importa a anotação @Repository
 // Marca esta interface como um componente Spring do tipo Repository
 // O Spring automaticamente cria uma implementação desta interface em tempo de execução
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Interface de Repositório - Camada de acesso a dados com PostgreSQL
  * 
@@ -66,5 +81,34 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     //
     // O Spring Data JPA gera automaticamente a query SQL:
     // SELECT * FROM products WHERE LOWER(name) LIKE LOWER(?1)
-}
+    //
+    // Esse LIKE '%...%' percorre a tabela inteira. A busca por nome da API
+    // (GET /products/search) usa o índice de trigramas: ver ProductService.search
+
+    /**
+     * Paginação por cursor (keyset): produtos com ID maior que o cursor
+     *
+     * Projeção por construtor: busca apenas as colunas de catálogo e devolve
+     * ProductDTO direto, sem criar entidades nem tocar em orderItems.
+     * Com Pageable ordenado por ID, gera:
+     * SELECT id, name, price_in_cents, version FROM products WHERE id > ? ORDER BY id LIMIT ?
+     */
+    @Query("select new com.example.projeto_postgres.dto.ProductDTO(p.id, p.name, p.priceInCents, p.version) "
+            + "from Product p where p.id > :after")
+    Slice<ProductDTO> findPageAfter(@Param("after") Long after, Pageable pageable);
 
+    /**
+     * Busca um produto por ID já como ProductDTO (apenas as colunas de catálogo)
+     */
+    @Query("select new com.example.projeto_postgres.dto.ProductDTO(p.id, p.name, p.priceInCents, p.version) "
+            + "from Product p where p.id = :id")
+    Optional<ProductDTO> findDTOById(@Param("id") Long id);
+
+    /**
+     * Busca vários produtos de uma vez (WHERE id IN (...)) já como ProductDTO
+     * Usado pelo ProductService para carregar apenas os produtos que não estão no cache
+     */
+    @Query("select new com.example.projeto_postgres.dto.ProductDTO(p.id, p.name, p.priceInCents, p.version) "
+            + "from Product p where p.id in :ids")
+    List<ProductDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+}
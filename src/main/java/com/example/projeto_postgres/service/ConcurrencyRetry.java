@@ -0,0 +1,81 @@
+package com.example.projeto_postgres.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Repetição limitada de escritas que perdem uma disputa de concorrência
+ *
+ * Cada tentativa roda em sua própria transação. ConcurrencyFailureException
+ * cobre a versão desatualizada (@Version), deadlocks e falhas de serialização
+ * do PostgreSQL: a tentativa é desfeita e a escrita roda de novo, lendo o
+ * estado atual, até app.concurrency.retry.max-attempts vezes, com uma espera
+ * aleatória entre as tentativas para que as escritas concorrentes não colidam
+ * de novo. Esgotadas as tentativas, a resposta é 409.
+ *
+ * Com If-Match, a versão informada é conferida a cada tentativa
+ * (requireVersion): depois de perder para outra escrita ela não confere mais
+ * e a resposta é 412, sem sobrescrever a outra escrita.
+ */
+@Component
+public class ConcurrencyRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyRetry.class);
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.concurrency.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.concurrency.retry.backoff:50ms}")
+    private Duration backoff;
+
+    public <T> T execute(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> write.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Conflito com outra alteração simultânea, tente novamente", e);
+                }
+                log.debug("Conflito de concorrência na tentativa {} de {}", attempt, maxAttempts, e);
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Confere a versão informada no If-Match com a versão atual
+     *
+     * @param expected versão do If-Match; null quando o header não foi enviado
+     * @throws ResponseStatusException 412 se as versões forem diferentes
+     */
+    public static void requireVersion(Long expected, Long current) {
+        if (expected != null && !expected.equals(current)) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "O recurso foi alterado por outra requisição (versão atual: " + current + ")");
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff.toMillis() + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Escrita interrompida", e);
+        }
+    }
+}
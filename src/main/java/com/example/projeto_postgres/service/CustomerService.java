@@ -0,0 +1,327 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.CustomerDTO;
+import com.example.projeto_postgres.dto.CustomerUpsertDTO;
+import com.example.projeto_postgres.dto.SearchPage;
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.repository.CustomerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço de escrita e busca de clientes
+ *
+ * A unicidade do email é garantida só pela constraint do banco, sem consultar
+ * antes: dois cadastros simultâneos com o mesmo email não passam os dois por
+ * uma verificação prévia, e o que perde a disputa recebe 409. O upsert por
+ * email é um único INSERT ... ON CONFLICT (email).
+ *
+ * A atualização é um ler-alterar-gravar protegido pela versão do cliente
+ * (@Version): uma atualização concorrente não é sobrescrita em silêncio.
+ * Com If-Match a versão lida precisa ser a informada (senão 412); sem ele, a
+ * atualização que perde a disputa é repetida pelo ConcurrencyRetry.
+ *
+ * A exclusão não carrega os pedidos: o banco exclui pedidos e itens em cascata
+ * (ON DELETE CASCADE). Clientes com muitos pedidos são excluídos em segundo
+ * plano, em blocos, para não manter os locks de todas as linhas de uma vez.
+ *
+ * A busca usa a coluna tsvector gerada pelo banco (customers.search_vector,
+ * migration V11) e o seu índice GIN (V12).
+ */
+@Service
+public class CustomerService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerService.class);
+
+    /**
+     * SQLSTATE do PostgreSQL para violação de constraint única
+     */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    /**
+     * Tamanho máximo do termo da busca
+     */
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    /**
+     * Busca textual: clientes com todos os termos (por prefixo) no nome, endereço
+     * ou telefone, do mais relevante para o menos e, no empate, pelo ID.
+     * O @@ é atendido pelo índice GIN; a página seguinte continua depois do
+     * (relevância, ID) do último cliente, sem OFFSET.
+     */
+    private static final String SEARCH_SQL = "SELECT id, name, email, phone, address, version, rank FROM ("
+            + "SELECT c.id, c.name, c.email, c.phone, c.address, c.version, ts_rank(c.search_vector, q) AS rank "
+            + "FROM customers c, to_tsquery('customer_search', ?) q WHERE c.search_vector @@ q) ranked "
+            + "WHERE rank < ? OR (rank = ? AND id > ?) "
+            + "ORDER BY rank DESC, id LIMIT ?";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ConcurrencyRetry concurrencyRetry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.deletion.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Clientes com exclusão em andamento (uma tarefa por cliente)
+     */
+    private final Set<Long> deleting = ConcurrentHashMap.newKeySet();
+    private ExecutorService deletionExecutor;
+
+    @PostConstruct
+    void startDeletionExecutor() {
+        deletionExecutor = Executors.newSingleThreadExecutor(task -> new Thread(task, "customer-deletion"));
+    }
+
+    @PreDestroy
+    void stopDeletionExecutor() {
+        // Uma exclusão interrompida deixa o cliente com parte dos pedidos; um novo DELETE termina o serviço
+        deletionExecutor.shutdownNow();
+    }
+
+    /**
+     * Cadastra o cliente
+     *
+     * @throws ResponseStatusException 409 se o email já está cadastrado
+     */
+    public CustomerDTO create(Customer customer) {
+        try {
+            return CustomerDTO.from(customerRepository.saveAndFlush(customer));
+        } catch (DataIntegrityViolationException e) {
+            throw emailConflict(e);
+        }
+    }
+
+    /**
+     * Atualiza os dados do cliente
+     *
+     * @param expectedVersion versão do If-Match; null para aceitar qualquer versão
+     */
+    public CustomerDTO update(Long id, Customer customerDetails, Long expectedVersion) {
+        return concurrencyRetry.execute(() -> {
+            Customer customer = customerRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Cliente não encontrado"));
+            ConcurrencyRetry.requireVersion(expectedVersion, customer.getVersion());
+
+            customer.setName(customerDetails.getName());
+            customer.setEmail(customerDetails.getEmail());
+            customer.setPhone(customerDetails.getPhone());
+            customer.setAddress(customerDetails.getAddress());
+
+            try {
+                return CustomerDTO.from(customerRepository.saveAndFlush(customer));
+            } catch (DataIntegrityViolationException e) {
+                throw emailConflict(e);
+            }
+        });
+    }
+
+    /**
+     * Resultado do upsert: o cliente gravado e se ele foi criado (201) ou não (200)
+     */
+    public record UpsertResult(CustomerDTO customer, boolean created) {
+    }
+
+    /**
+     * Cria o cliente com o email informado ou atualiza o existente, em um único comando
+     *
+     * O ID vem do gerador do Hibernate (customers_seq em blocos de 50), o mesmo
+     * do POST, para não colidir com os IDs já reservados por ele. Se os dados
+     * não mudaram, a linha não é regravada e a versão (ETag) continua a mesma.
+     *
+     * @throws ResponseStatusException 400 se o email é inválido
+     */
+    @Transactional
+    public UpsertResult upsert(String email, CustomerUpsertDTO details) {
+        Set<ConstraintViolation<Customer>> violations = validator.validateValue(Customer.class, "email", email);
+        if (!violations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violations.iterator().next().getMessage());
+        }
+
+        List<UpsertResult> written = jdbcTemplate.query(
+                "INSERT INTO customers AS c (id, name, email, phone, address, version) VALUES (?, ?, ?, ?, ?, 0) "
+                        + "ON CONFLICT (email) DO UPDATE SET name = EXCLUDED.name, phone = EXCLUDED.phone, "
+                        + "address = EXCLUDED.address, version = c.version + 1 "
+                        + "WHERE (c.name, c.phone, c.address) IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.phone, EXCLUDED.address) "
+                        + "RETURNING c.id, c.name, c.email, c.phone, c.address, c.version, c.xmax = 0 AS inserted",
+                (rs, rowNum) -> new UpsertResult(new CustomerDTO(rs.getLong("id"), rs.getString("name"),
+                        rs.getString("email"), rs.getString("phone"), rs.getString("address"), rs.getLong("version")),
+                        rs.getBoolean("inserted")),
+                nextId(), details.getName(), email, details.getPhone(), details.getAddress());
+        if (!written.isEmpty()) {
+            return written.get(0);
+        }
+
+        // Nada mudou: o ON CONFLICT não regravou a linha, mas a travou até o fim da transação
+        return new UpsertResult(customerRepository.findDTOByEmail(email)
+                .orElseThrow(() -> new IllegalStateException("Cliente sumiu durante o upsert")), false);
+    }
+
+    /**
+     * Próximo ID do gerador de Customer (um nextval a cada 50 IDs)
+     */
+    private Long nextId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Customer.class).getGenerator();
+        return (Long) generator.generate(session, null);
+    }
+
+    /**
+     * Converte a violação da constraint única do email em 409; as demais
+     * violações seguem para o GlobalExceptionHandler (também 409)
+     */
+    private static RuntimeException emailConflict(DataIntegrityViolationException e) {
+        if (e.getMostSpecificCause() instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+            return new ResponseStatusException(HttpStatus.CONFLICT, "Já existe um cliente com este email");
+        }
+        return e;
+    }
+
+    /**
+     * Busca clientes por partes do nome, do endereço ou do telefone
+     *
+     * Cada palavra do termo precisa aparecer como início de uma palavra do
+     * cliente ("mar flor" encontra "Maria" na "Rua das Flores"), sem diferenciar
+     * maiúsculas nem acentos. Pontuação é ignorada, então "98765-4321" encontra
+     * o telefone "(11) 98765-4321".
+     *
+     * @param after nextCursor da página anterior; null para a primeira página
+     * @throws ResponseStatusException 400 se o termo é vazio, longo demais ou sem
+     *                                 letras e números, ou se o cursor é inválido
+     */
+    public SearchPage<CustomerDTO> search(String query, String after, int limit) {
+        String term = query == null ? "" : query.strip();
+        if (term.isEmpty() || term.length() > MAX_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "O termo de busca deve ter entre 1 e " + MAX_QUERY_LENGTH + " caracteres");
+        }
+        // Só letras e números chegam ao to_tsquery, que não aceita texto livre
+        List<String> words = Arrays.stream(Normalizer.normalize(term, Normalizer.Form.NFC)
+                        .toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+        if (words.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O termo de busca deve ter letras ou números");
+        }
+        String tsQuery = words.stream().map(word -> word + ":*").collect(Collectors.joining(" & "));
+
+        float afterRank = Float.MAX_VALUE;
+        long afterId = 0;
+        if (after != null) {
+            try {
+                int separator = after.lastIndexOf('_');
+                afterRank = Float.parseFloat(after.substring(0, separator));
+                afterId = Long.parseLong(after.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+        }
+
+        List<Float> ranks = new ArrayList<>();
+        List<CustomerDTO> customers = jdbcTemplate.query(SEARCH_SQL, (rs, rowNum) -> {
+                    ranks.add(rs.getFloat("rank"));
+                    return new CustomerDTO(rs.getLong("id"), rs.getString("name"), rs.getString("email"),
+                            rs.getString("phone"), rs.getString("address"), rs.getLong("version"));
+                },
+                tsQuery, afterRank, afterRank, afterId, limit + 1);
+        if (customers.size() <= limit) {
+            return new SearchPage<>(customers, null, false);
+        }
+        CustomerDTO last = customers.get(limit - 1);
+        return new SearchPage<>(customers.subList(0, limit), ranks.get(limit - 1) + "_" + last.id(), true);
+    }
+
+    /**
+     * Exclui o cliente com os seus pedidos e itens
+     *
+     * Até app.deletion.chunk-size pedidos, tudo sai em um único DELETE (o banco
+     * exclui pedidos e itens em cascata). Acima disso, a exclusão continua em
+     * segundo plano (deleteInChunks) e o cliente some quando ela termina.
+     *
+     * @return true se a exclusão continua em segundo plano
+     * @throws RuntimeException se o cliente não existe (404)
+     */
+    public boolean delete(Long id) {
+        boolean large = !jdbcTemplate.queryForList("SELECT id FROM orders WHERE customer_id = ? OFFSET ? LIMIT 1",
+                Long.class, id, chunkSize).isEmpty();
+        if (!large) {
+            if (jdbcTemplate.update("DELETE FROM customers WHERE id = ?", id) == 0) {
+                throw new RuntimeException("Cliente não encontrado");
+            }
+            return false;
+        }
+        if (deleting.add(id)) {
+            deletionExecutor.execute(() -> deleteInChunks(id));
+        }
+        return true;
+    }
+
+    /**
+     * Exclui os pedidos do cliente em blocos de chunk-size pedidos, cada bloco
+     * em sua própria transação, e por fim o cliente
+     *
+     * Cada bloco é um DELETE atendido pelo índice de orders (customer_id, ...):
+     * os locks duram um bloco, e pedidos criados durante a exclusão saem
+     * junto com o cliente no último DELETE.
+     */
+    private void deleteInChunks(Long id) {
+        try {
+            long orders = 0;
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update("DELETE FROM orders WHERE id IN ("
+                        + "SELECT id FROM orders WHERE customer_id = ? LIMIT ?)", id, chunkSize);
+                orders += deleted;
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            } while (deleted > 0);
+            jdbcTemplate.update("DELETE FROM customers WHERE id = ?", id);
+            log.info("Cliente {} excluído com {} pedidos", id, orders);
+        } catch (DataAccessException e) {
+            log.error("Falha ao excluir o cliente {}; repita o DELETE para continuar", id, e);
+        } finally {
+            deleting.remove(id);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.projeto_postgres.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Idempotência das criações (header Idempotency-Key)
+ *
+ * Um cliente que repete a requisição com a mesma chave (ex: depois de um
+ * timeout) recebe a resposta original, sem que a escrita rode de novo.
+ * 1. Retentativas: a resposta vem do cache em memória deste serviço (limitado
+ *    por app.idempotency.cache.*, separado do cache do catálogo) ou, na falta
+ *    dele, de um SELECT simples na tabela idempotency_keys. Nenhum lock é tomado
+ * 2. Primeira requisição: a escrita e o INSERT da chave (com a resposta) rodam
+ *    na mesma transação. Se duas requisições com a mesma chave correm juntas,
+ *    o INSERT da segunda encontra a chave da primeira (ON CONFLICT sem efeito),
+ *    a escrita da segunda é desfeita e ela devolve a resposta da primeira
+ * 3. A mesma chave com outro conteúdo é rejeitada (422): a comparação é feita
+ *    pelo hash SHA-256 da requisição
+ *
+ * Só respostas de sucesso são gravadas: se a escrita falha, nada foi salvo e
+ * a retentativa executa de novo. As chaves expiram após app.idempotency.ttl e
+ * são removidas em lotes por removeExpired.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final int CLEANUP_CHUNK = 10_000;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${app.idempotency.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${app.idempotency.cache.expire-after-write:10m}")
+    private Duration cacheExpireAfterWrite;
+
+    private Cache<String, StoredResponse> responses;
+
+    /**
+     * Resultado da execução: a resposta e se ela foi repetida de uma execução anterior
+     */
+    public record Result<T>(T body, boolean replayed) {
+    }
+
+    /**
+     * Resposta gravada para uma chave
+     */
+    private record StoredResponse(byte[] requestHash, String body) {
+    }
+
+    @PostConstruct
+    void init() {
+        // Nunca guarda uma resposta além do ttl da chave; métricas em cache.gets?tag=cache:idempotency
+        responses = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheExpireAfterWrite.compareTo(ttl) < 0 ? cacheExpireAfterWrite : ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+    }
+
+    /**
+     * Executa a escrita uma única vez por chave
+     *
+     * @param scope        operação (ex: "orders"), separa chaves iguais de endpoints diferentes
+     * @param key          valor do header Idempotency-Key; sem chave, a escrita roda normalmente
+     * @param request      corpo da requisição, comparado com o da execução original
+     * @param responseType tipo da resposta, para ler a resposta gravada
+     * @param write        escrita; roda na transação em que a chave é gravada
+     */
+    public <T> Result<T> execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> write) {
+        if (key == null) {
+            return new Result<>(write.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        byte[] requestHash = hash(request);
+        StoredResponse stored = find(scope, key);
+        if (stored != null) {
+            return replay(stored, requestHash, responseType);
+        }
+
+        try {
+            StoredResponse[] created = new StoredResponse[1];
+            T body = transactionTemplate.execute(status -> {
+                T result = write.get();
+                created[0] = new StoredResponse(requestHash, toJson(result));
+                if (!insert(scope, key, created[0])) {
+                    throw new KeyAlreadyUsedException();
+                }
+                return result;
+            });
+            responses.put(cacheKey(scope, key), created[0]);
+            return new Result<>(body, false);
+        } catch (KeyAlreadyUsedException e) {
+            // Outra requisição com a mesma chave gravou primeiro; a escrita desta foi desfeita
+            return replay(find(scope, key), requestHash, responseType);
+        }
+    }
+
+    /**
+     * Esvazia o cache em memória; as respostas continuam na tabela e são relidas dela
+     */
+    public void clearCache() {
+        responses.invalidateAll();
+    }
+
+    /**
+     * Remove as chaves expiradas, em lotes (cada lote em sua própria transação)
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:1h}",
+            initialDelayString = "${app.idempotency.cleanup-interval:1h}")
+    public long removeExpired() {
+        Timestamp expiredBefore = Timestamp.valueOf(LocalDateTime.now().minus(ttl));
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE (scope, idempotency_key) IN ("
+                    + "SELECT scope, idempotency_key FROM idempotency_keys WHERE created_at < ? LIMIT ?)",
+                    expiredBefore, CLEANUP_CHUNK);
+            total += deleted;
+        } while (deleted == CLEANUP_CHUNK);
+        if (total > 0) {
+            log.info("Chaves de idempotência expiradas removidas: {}", total);
+        }
+        return total;
+    }
+
+    private StoredResponse find(String scope, String key) {
+        String cacheKey = cacheKey(scope, key);
+        StoredResponse cached = responses.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        List<StoredResponse> rows = jdbcTemplate.query(
+                "SELECT request_hash, response_body FROM idempotency_keys "
+                        + "WHERE scope = ? AND idempotency_key = ? AND created_at >= ?",
+                (rs, rowNum) -> new StoredResponse(rs.getBytes(1), rs.getString(2)),
+                scope, key, Timestamp.valueOf(LocalDateTime.now().minus(ttl)));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        responses.put(cacheKey, rows.get(0));
+        return rows.get(0);
+    }
+
+    /**
+     * Grava a chave; uma chave expirada ainda não removida é substituída
+     *
+     * @return false se a chave já existe (e não expirou)
+     */
+    private boolean insert(String scope, String key, StoredResponse response) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update("INSERT INTO idempotency_keys "
+                        + "(scope, idempotency_key, request_hash, response_body, created_at) VALUES (?, ?, ?, ?, ?) "
+                        + "ON CONFLICT (scope, idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, "
+                        + "response_body = EXCLUDED.response_body, created_at = EXCLUDED.created_at "
+                        + "WHERE idempotency_keys.created_at < ?",
+                scope, key, response.requestHash(), response.body(), Timestamp.valueOf(now),
+                Timestamp.valueOf(now.minus(ttl))) > 0;
+    }
+
+    private <T> Result<T> replay(StoredResponse stored, byte[] requestHash, Class<T> responseType) {
+        if (!Arrays.equals(stored.requestHash(), requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " já usada com outro conteúdo de requisição");
+        }
+        return new Result<>(fromJson(stored.body(), responseType), true);
+    }
+
+    private static String cacheKey(String scope, String key) {
+        return scope + ":" + key;
+    }
+
+    private byte[] hash(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível calcular o hash da requisição", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível gravar a resposta", e);
+        }
+    }
+
+    private <T> T fromJson(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível ler a resposta gravada", e);
+        }
+    }
+
+    /**
+     * Desfaz a transação da escrita quando a chave já foi gravada por outra requisição
+     */
+    private static class KeyAlreadyUsedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
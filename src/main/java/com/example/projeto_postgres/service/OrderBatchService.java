@@ -0,0 +1,225 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.CreateOrderDTO;
+import com.example.projeto_postgres.dto.OrderBatchResultDTO;
+import com.example.projeto_postgres.dto.OrderItemDTO;
+import com.example.projeto_postgres.dto.ProductDTO;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço de criação de pedidos em lote (POST /orders/batch)
+ *
+ * Um pedido com erro não derruba o lote; cada pedido recebe seu resultado.
+ * 1. Cada pedido é validado (mesmas regras de POST /orders)
+ * 2. Clientes e produtos de todos os pedidos são resolvidos de uma vez: uma
+ *    consulta para os clientes e o cache de produtos + no máximo uma consulta
+ * 3. Os pedidos válidos são gravados em blocos de app.orders.batch.chunk-size
+ *    pedidos, um bloco por transação, com INSERTs em lotes JDBC. Um bloco que
+ *    falha no banco (ex: cliente deletado no meio do caminho) é desfeito e
+ *    regravado pedido a pedido, para isolar o pedido com problema. Qualquer
+ *    outra falha do bloco (deadlock, tempo de lock esgotado, conexão perdida)
+ *    marca os pedidos daquele bloco como não gravados; os blocos anteriores
+ *    continuam gravados e o cliente reenvia só os que falharam
+ *
+ * O estoque do bloco é reservado (StockService) de uma vez, somado por
+ * produto, na transação do bloco: uma transação que reservasse pedido a pedido
+ * voltaria a um produto cuja linha já travou e poderia esperar para sempre pelo
+ * contador desse produto (veja StockService). Se faltar estoque, o bloco é
+ * regravado pedido a pedido e só o pedido sem estoque falha. Os produtos com
+ * controle de estoque são identificados uma vez para o lote inteiro.
+ */
+@Service
+public class OrderBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchService.class);
+
+    private static final String NOT_SAVED = "Pedido não gravado por uma falha no banco; pode ser reenviado";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.orders.batch.chunk-size:500}")
+    private int chunkSize;
+
+    public OrderBatchResultDTO createOrders(List<CreateOrderDTO> orders) {
+        OrderBatchResultDTO.Result[] results = new OrderBatchResultDTO.Result[orders.size()];
+
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            String error = validate(orders.get(i));
+            if (error != null) {
+                results[i] = OrderBatchResultDTO.Result.failed(i, error);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        Set<Long> customerIds = valid.stream()
+                .map(i -> orders.get(i).getCustomerId())
+                .collect(Collectors.toSet());
+        Set<Long> customers = customerIds.isEmpty() ? Set.of()
+                : new HashSet<>(customerRepository.findExistingIds(customerIds));
+        Map<Long, ProductDTO> products = productService.findAllById(valid.stream()
+                .flatMap(i -> orders.get(i).getItems().stream())
+                .map(OrderItemDTO::getProductId)
+                .collect(Collectors.toSet()));
+
+        List<Integer> resolved = new ArrayList<>();
+        for (int i : valid) {
+            String error = checkReferences(orders.get(i), customers, products);
+            if (error != null) {
+                results[i] = OrderBatchResultDTO.Result.failed(i, error);
+            } else {
+                resolved.add(i);
+            }
+        }
+
+        Set<Long> tracked = resolved.isEmpty() ? Set.of() : stockService.classify(resolved.stream()
+                .flatMap(i -> orders.get(i).getItems().stream())
+                .map(OrderItemDTO::getProductId)
+                .collect(Collectors.toSet()));
+
+        for (int start = 0; start < resolved.size(); start += chunkSize) {
+            List<Integer> chunk = resolved.subList(start, Math.min(start + chunkSize, resolved.size()));
+            try {
+                for (OrderBatchResultDTO.Result result : insert(chunk, orders, products, tracked)) {
+                    results[result.index()] = result;
+                }
+            } catch (DataIntegrityViolationException | StockService.InsufficientStockException e) {
+                for (int i : chunk) {
+                    results[i] = insertOne(i, orders, products, tracked);
+                }
+            } catch (RuntimeException e) {
+                // O bloco foi desfeito: nenhum pedido dele existe
+                log.warn("Bloco de {} pedidos não gravado", chunk.size(), e);
+                for (int i : chunk) {
+                    results[i] = OrderBatchResultDTO.Result.failed(i, NOT_SAVED);
+                }
+            }
+        }
+        return OrderBatchResultDTO.of(Arrays.asList(results));
+    }
+
+    /**
+     * Reserva o estoque de todos os pedidos e os grava em uma transação; retorna
+     * o resultado de cada pedido
+     *
+     * Se a transação for desfeita, as reservas dos pedidos voltam ao estoque.
+     * O contexto de persistência é limpo no fim para não acumular entidades
+     * entre os blocos.
+     *
+     * @throws StockService.InsufficientStockException se algum produto não tiver
+     *                                                 estoque para o bloco inteiro
+     */
+    private List<OrderBatchResultDTO.Result> insert(List<Integer> indexes, List<CreateOrderDTO> orders,
+                                                    Map<Long, ProductDTO> products, Set<Long> tracked) {
+        return transactionTemplate.execute(status -> {
+            stockService.reserve(indexes.stream().flatMap(i -> orders.get(i).getItems().stream()).toList(), tracked);
+            List<OrderBatchResultDTO.Result> results = new ArrayList<>(indexes.size());
+            Map<Integer, Order> created = new LinkedHashMap<>();
+            for (int i : indexes) {
+                Order order = orderService.newOrder(orders.get(i), products);
+                entityManager.persist(order);
+                created.put(i, order);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            created.forEach((i, order) -> results.add(OrderBatchResultDTO.Result.created(i, order.getId())));
+            return results;
+        });
+    }
+
+    private OrderBatchResultDTO.Result insertOne(int index, List<CreateOrderDTO> orders,
+                                                 Map<Long, ProductDTO> products, Set<Long> tracked) {
+        try {
+            return insert(List.of(index), orders, products, tracked).get(0);
+        } catch (StockService.InsufficientStockException e) {
+            return OrderBatchResultDTO.Result.failed(index, e.getReason());
+        } catch (DataIntegrityViolationException e) {
+            // Mesma interpretação de OrderService.createOrder; outra violação falha só este
+            // pedido, com a mensagem do 409 de POST /orders
+            String missing = OrderService.missingReference(e, orders.get(index).getCustomerId());
+            return OrderBatchResultDTO.Result.failed(index,
+                    missing != null ? missing : "A operação viola uma restrição dos dados");
+        } catch (RuntimeException e) {
+            log.warn("Pedido {} do lote não gravado", index, e);
+            return OrderBatchResultDTO.Result.failed(index, NOT_SAVED);
+        }
+    }
+
+    /**
+     * Valida o pedido com as anotações de CreateOrderDTO/OrderItemDTO;
+     * retorna null se for válido
+     */
+    private String validate(CreateOrderDTO order) {
+        if (order == null) {
+            return "O pedido não pode ser nulo";
+        }
+        if (order.getItems() != null && order.getItems().contains(null)) {
+            return "Os itens do pedido não podem ser nulos";
+        }
+        Set<ConstraintViolation<CreateOrderDTO>> violations = validator.validate(order);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private String checkReferences(CreateOrderDTO order, Set<Long> customers, Map<Long, ProductDTO> products) {
+        if (!customers.contains(order.getCustomerId())) {
+            return "Cliente não encontrado: " + order.getCustomerId();
+        }
+        List<Long> missing = order.getItems().stream()
+                .map(OrderItemDTO::getProductId)
+                .filter(Objects::nonNull)
+                .filter(id -> !products.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            return "Produtos não encontrados: " + missing;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.OrderDetailDTO;
+import com.example.projeto_postgres.dto.OrderExportRowDTO;
+import com.example.projeto_postgres.dto.OrderItemDetailDTO;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Serviço de exportação de pedidos em NDJSON (um pedido JSON por linha)
+ *
+ * A memória usada não depende da quantidade de pedidos:
+ * 1. A consulta é lida em streaming, com fetch size, dentro de uma transação
+ *    somente leitura (o driver busca blocos de linhas por cursor)
+ * 2. Cada linha é um DTO de projeção, não uma entidade: nada é guardado no
+ *    contexto de persistência, então não há o que "destacar" (detach)
+ * 3. Só o pedido atual fica em memória: as linhas consecutivas de um pedido
+ *    são juntadas, escritas na saída e descartadas
+ */
+@Service
+public class OrderExportService {
+
+    private static final byte[] NEW_LINE = {'\n'};
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Escreve na saída os pedidos que atendem aos filtros (nulos são ignorados)
+     *
+     * @param from   data inicial (inclusiva)
+     * @param to     data final (exclusiva)
+     * @param status status do pedido
+     * @return quantidade de pedidos exportados
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, Order.OrderStatus status, OutputStream out) {
+        try (Stream<OrderExportRowDTO> rows = orderRepository.streamForExport(from, to, status)) {
+            return writeOrders(rows.iterator(), objectMapper.writerFor(OrderDetailDTO.class), out);
+        }
+    }
+
+    private long writeOrders(Iterator<OrderExportRowDTO> rows, ObjectWriter writer, OutputStream out) {
+        long count = 0;
+        OrderExportRowDTO current = null;
+        List<OrderItemDetailDTO> items = new ArrayList<>();
+        while (rows.hasNext()) {
+            OrderExportRowDTO row = rows.next();
+            if (current != null && !current.orderId().equals(row.orderId())) {
+                write(current, items, writer, out);
+                count++;
+                current = null;
+                items = new ArrayList<>();
+            }
+            if (current == null) {
+                current = row;
+            }
+            if (row.itemId() != null) {
+                items.add(new OrderItemDetailDTO(row.itemId(), row.productId(), row.productName(),
+                        row.quantity(), row.unitPriceInCents()));
+            }
+        }
+        if (current != null) {
+            write(current, items, writer, out);
+            count++;
+        }
+        return count;
+    }
+
+    private void write(OrderExportRowDTO order, List<OrderItemDetailDTO> items, ObjectWriter writer, OutputStream out) {
+        OrderDetailDTO detail = new OrderDetailDTO(order.orderId(), order.customerId(), order.customerName(),
+                order.orderDate(), order.status(), items, order.totalAmount());
+        try {
+            out.write(writer.writeValueAsBytes(detail));
+            out.write(NEW_LINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.CreateOrderDTO;
+import com.example.projeto_postgres.dto.OrderBatchResultDTO;
+import com.example.projeto_postgres.dto.OrderImportProgressDTO;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serviço de importação de pedidos em NDJSON (um CreateOrderDTO por linha)
+ *
+ * A memória usada não depende do tamanho do arquivo:
+ * 1. O corpo da requisição é lido com o parser de streaming do Jackson
+ *    (MappingIterator), um pedido por vez, sem montar o arquivo em memória
+ * 2. A cada app.orders.batch.chunk-size pedidos o bloco é gravado pelo
+ *    OrderBatchService (uma transação) e uma linha de progresso é enviada
+ * 3. O próximo bloco só é lido depois do commit do anterior: enquanto o banco
+ *    grava, ninguém lê o socket, e o controle de fluxo do TCP segura o cliente.
+ *    A velocidade da importação é a velocidade dos commits
+ *
+ * Um pedido que não pode ser convertido (ex: texto em "quantity") vira erro
+ * daquela linha; JSON malformado interrompe a importação, mantendo os blocos
+ * já gravados (a última linha de progresso indica onde parou).
+ */
+@Service
+public class OrderImportService {
+
+    private static final byte[] NEW_LINE = {'\n'};
+
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.orders.batch.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Importa os pedidos de in e escreve o progresso em out (NDJSON)
+     *
+     * @return progresso final (done = true)
+     */
+    public OrderImportProgressDTO importOrders(InputStream in, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(OrderImportProgressDTO.class);
+        Progress progress = new Progress();
+
+        try (MappingIterator<CreateOrderDTO> orders = objectMapper.readerFor(CreateOrderDTO.class).readValues(in)) {
+            while (orders.hasNextValue()) {
+                long line = orders.getParser().currentTokenLocation().getLineNr();
+                try {
+                    progress.add(orders.nextValue(), line);
+                } catch (JsonMappingException e) {
+                    progress.reject(line, "Pedido inválido: " + e.getOriginalMessage());
+                }
+                if (progress.pending() >= chunkSize) {
+                    write(progress.flush(), writer, out);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // JSON malformado: não há como achar o início do próximo pedido com segurança
+            OrderImportProgressDTO last = progress.flush();
+            OrderImportProgressDTO aborted = new OrderImportProgressDTO(last.processed(), last.created(),
+                    last.failed(), last.errors(), true,
+                    "JSON inválido na linha " + lineOf(e.getLocation()) + ": " + e.getOriginalMessage());
+            write(aborted, writer, out);
+            return aborted;
+        }
+
+        OrderImportProgressDTO last = progress.flush();
+        OrderImportProgressDTO done = new OrderImportProgressDTO(last.processed(), last.created(),
+                last.failed(), last.errors(), true, null);
+        write(done, writer, out);
+        return done;
+    }
+
+    private static String lineOf(JsonLocation location) {
+        return location == null ? "?" : String.valueOf(location.getLineNr());
+    }
+
+    private void write(OrderImportProgressDTO progress, ObjectWriter writer, OutputStream out) throws IOException {
+        out.write(writer.writeValueAsBytes(progress));
+        out.write(NEW_LINE);
+        out.flush();
+    }
+
+    /**
+     * Bloco atual (pedidos e suas linhas) e totais acumulados
+     */
+    private class Progress {
+        private final List<CreateOrderDTO> orders = new ArrayList<>();
+        private final List<Long> lines = new ArrayList<>();
+        private List<OrderImportProgressDTO.LineError> errors = new ArrayList<>();
+        private long processed;
+        private long created;
+        private long failed;
+
+        void add(CreateOrderDTO order, long line) {
+            orders.add(order);
+            lines.add(line);
+        }
+
+        void reject(long line, String error) {
+            errors.add(new OrderImportProgressDTO.LineError(line, error));
+            processed++;
+            failed++;
+        }
+
+        int pending() {
+            return orders.size() + errors.size();
+        }
+
+        /**
+         * Grava o bloco atual e retorna o progresso até aqui
+         */
+        OrderImportProgressDTO flush() {
+            if (!orders.isEmpty()) {
+                for (OrderBatchResultDTO.Result result : orderBatchService.createOrders(orders).results()) {
+                    if (result.error() != null) {
+                        errors.add(new OrderImportProgressDTO.LineError(lines.get(result.index()), result.error()));
+                        failed++;
+                    } else {
+                        created++;
+                    }
+                    processed++;
+                }
+            }
+            errors.sort((a, b) -> Long.compare(a.line(), b.line()));
+            OrderImportProgressDTO snapshot = new OrderImportProgressDTO(processed, created, failed,
+                    errors, false, null);
+            orders.clear();
+            lines.clear();
+            errors = new ArrayList<>();
+            return snapshot;
+        }
+    }
+}
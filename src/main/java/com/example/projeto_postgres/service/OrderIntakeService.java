@@ -0,0 +1,192 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.CreateOrderDTO;
+import com.example.projeto_postgres.dto.OrderBatchResultDTO;
+import com.example.projeto_postgres.dto.OrderIntakeStatusDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recebimento assíncrono de pedidos (app.orders.intake.mode=async)
+ *
+ * Em picos de venda, cada POST /orders síncrono segura uma thread do Tomcat
+ * até o commit no PostgreSQL. No modo assíncrono:
+ * 1. POST /orders valida o pedido, coloca na fila em memória e responde 202
+ *    com um ID de rastreamento, sem ir ao banco
+ * 2. Uma thread de gravação tira da fila tudo o que acumulou (até
+ *    app.orders.batch.chunk-size pedidos) e grava em uma única transação pelo
+ *    OrderBatchService (group commit): enquanto um commit acontece, os pedidos
+ *    seguintes se juntam no próximo lote
+ * 3. GET /orders/intake/{trackingId} informa quando o pedido ficou durável
+ *    (commit feito) ou por que falhou
+ *
+ * A fila é limitada (app.orders.intake.queue-capacity): cheia, a requisição
+ * recebe 429 em vez de a memória crescer. Pedidos na fila ainda não estão no
+ * banco e se perdem se a aplicação cair; no desligamento normal a fila é
+ * esvaziada antes de fechar (fase abaixo da do servidor web, que para antes).
+ */
+@Service
+public class OrderIntakeService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Value("${app.orders.intake.mode:sync}")
+    private String mode;
+
+    @Value("${app.orders.intake.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.orders.batch.chunk-size:500}")
+    private int maxBatchSize;
+
+    @Value("${app.orders.intake.status-ttl:1h}")
+    private Duration statusTtl;
+
+    private BlockingQueue<QueuedOrder> queue;
+    private Cache<String, OrderIntakeStatusDTO> statuses;
+    private volatile boolean running;
+    private Thread writer;
+
+    private record QueuedOrder(String trackingId, CreateOrderDTO order) {
+    }
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Situações mantidas por status-ttl depois da última mudança; limitadas em quantidade
+        statuses = Caffeine.newBuilder()
+                .maximumSize(queueCapacity * 10L)
+                .expireAfterWrite(statusTtl)
+                .build();
+    }
+
+    public boolean isAsync() {
+        return "async".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Coloca o pedido (já validado) na fila
+     *
+     * @return situação inicial (QUEUED) com o ID de rastreamento
+     * @throws ResponseStatusException 429 se a fila estiver cheia
+     */
+    public OrderIntakeStatusDTO submit(CreateOrderDTO order) {
+        OrderIntakeStatusDTO status = OrderIntakeStatusDTO.queued(UUID.randomUUID().toString());
+        statuses.put(status.trackingId(), status);
+        if (!queue.offer(new QueuedOrder(status.trackingId(), order))) {
+            statuses.invalidate(status.trackingId());
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Fila de pedidos cheia, tente novamente em instantes");
+        }
+        return status;
+    }
+
+    public Optional<OrderIntakeStatusDTO> findStatus(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    /**
+     * Laço da thread de gravação: espera o primeiro pedido e grava junto tudo o
+     * que já estiver na fila
+     */
+    private void writeLoop() {
+        List<QueuedOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedOrder first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<QueuedOrder> batch) {
+        try {
+            List<OrderBatchResultDTO.Result> results = orderBatchService.createOrders(
+                    batch.stream().map(QueuedOrder::order).toList()).results();
+            for (OrderBatchResultDTO.Result result : results) {
+                String trackingId = batch.get(result.index()).trackingId();
+                statuses.asMap().computeIfPresent(trackingId, (id, status) -> result.id() != null
+                        ? status.durable(result.id())
+                        : status.failed(result.error()));
+            }
+        } catch (RuntimeException e) {
+            // Ex: banco indisponível; os pedidos do lote não foram gravados
+            log.error("Falha ao gravar lote de {} pedidos da fila", batch.size(), e);
+            for (QueuedOrder queued : batch) {
+                statuses.asMap().computeIfPresent(queued.trackingId(),
+                        (id, status) -> status.failed("Erro ao gravar o pedido, envie novamente"));
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!isAsync()) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "order-intake-writer");
+        writer.start();
+    }
+
+    /**
+     * Para de esperar novos pedidos e grava o que ainda está na fila
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Inicia antes e para depois do servidor web: no desligamento, as requisições
+     * param de chegar antes de a fila ser esvaziada
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
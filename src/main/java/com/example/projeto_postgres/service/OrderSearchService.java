@@ -0,0 +1,134 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.OrderSummaryDTO;
+import com.example.projeto_postgres.dto.SearchPage;
+import com.example.projeto_postgres.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Busca de pedidos por status, período, cliente e valor mínimo, em qualquer combinação
+ *
+ * A consulta é montada só com os filtros informados: um filtro ausente não
+ * vira "(? IS NULL OR coluna = ?)", que impede o PostgreSQL de escolher o
+ * índice da combinação. Os pedidos vêm do mais recente para o mais antigo
+ * (order_date, id), e a página seguinte continua com (order_date, id) < cursor,
+ * sem OFFSET. Os índices das migrations V13 e V15 terminam em (order_date, id),
+ * então cada combinação comum é lida direto do índice, do cursor até o LIMIT.
+ */
+@Service
+public class OrderSearchService {
+
+    private static final String SELECT = "SELECT o.id, o.customer_id, c.name AS customer_name, o.order_date, "
+            + "o.status, o.item_count, o.total_amount_in_cents "
+            + "FROM orders o JOIN customers c ON c.id = o.customer_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Filtros da busca; nulos (ou lista vazia de status) são ignorados
+     *
+     * @param statuses        um ou mais status
+     * @param from            data inicial (inclusiva)
+     * @param to              data final (exclusiva)
+     * @param customerId      cliente dos pedidos
+     * @param minTotalInCents valor total mínimo, em centavos
+     */
+    public record Filters(List<Order.OrderStatus> statuses, LocalDateTime from, LocalDateTime to,
+                          Long customerId, Long minTotalInCents) {
+    }
+
+    /**
+     * Consulta montada para os filtros: o SQL e os seus parâmetros, na ordem
+     */
+    private record Query(String sql, Object[] args) {
+    }
+
+    /**
+     * Busca uma página de pedidos
+     *
+     * @param after nextCursor da página anterior; null para a primeira página
+     * @throws ResponseStatusException 400 se o período é inválido ou o cursor não é reconhecido
+     */
+    public SearchPage<OrderSummaryDTO> search(Filters filters, String after, int limit) {
+        Query query = build(filters, after, limit + 1);
+        List<OrderSummaryDTO> orders = jdbcTemplate.query(query.sql(),
+                (rs, rowNum) -> new OrderSummaryDTO(rs.getLong("id"), rs.getLong("customer_id"),
+                        rs.getString("customer_name"), rs.getTimestamp("order_date").toLocalDateTime(),
+                        Order.OrderStatus.fromCode(rs.getShort("status")),
+                        (Integer) rs.getObject("item_count"), (Long) rs.getObject("total_amount_in_cents")),
+                query.args());
+        if (orders.size() <= limit) {
+            return new SearchPage<>(orders, null, false);
+        }
+        OrderSummaryDTO last = orders.get(limit - 1);
+        return new SearchPage<>(orders.subList(0, limit), last.orderDate() + "_" + last.id(), true);
+    }
+
+    /**
+     * Plano de execução (EXPLAIN) da busca com estes filtros, para conferir qual índice atende cada combinação
+     */
+    public List<String> explain(Filters filters, String after, int limit) {
+        Query query = build(filters, after, limit + 1);
+        return jdbcTemplate.queryForList("EXPLAIN " + query.sql(), String.class, query.args());
+    }
+
+    private static Query build(Filters filters, String after, int limit) {
+        if (filters.from() != null && filters.to() != null && !filters.from().isBefore(filters.to())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A data inicial deve ser anterior à data final");
+        }
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (filters.statuses() != null && !filters.statuses().isEmpty()) {
+            // Códigos no próprio SQL, não como parâmetros: o índice parcial dos pedidos em
+            // aberto (V15) só pode ser usado quando o PostgreSQL vê os valores ao montar o
+            // plano, e o plano genérico de um comando preparado não os vê. Vêm do enum,
+            // nunca do texto da requisição.
+            String codes = filters.statuses().stream().distinct()
+                    .map(status -> String.valueOf(status.getCode()))
+                    .collect(Collectors.joining(", "));
+            conditions.add(codes.contains(",") ? "o.status IN (" + codes + ")" : "o.status = " + codes);
+        }
+        if (filters.from() != null) {
+            conditions.add("o.order_date >= ?");
+            args.add(Timestamp.valueOf(filters.from()));
+        }
+        if (filters.to() != null) {
+            conditions.add("o.order_date < ?");
+            args.add(Timestamp.valueOf(filters.to()));
+        }
+        if (filters.customerId() != null) {
+            conditions.add("o.customer_id = ?");
+            args.add(filters.customerId());
+        }
+        if (filters.minTotalInCents() != null) {
+            conditions.add("o.total_amount_in_cents >= ?");
+            args.add(filters.minTotalInCents());
+        }
+        if (after != null) {
+            conditions.add("(o.order_date, o.id) < (?, ?)");
+            try {
+                int separator = after.lastIndexOf('_');
+                args.add(Timestamp.valueOf(LocalDateTime.parse(after.substring(0, separator))));
+                args.add(Long.parseLong(after.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+        }
+        args.add(limit);
+
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return new Query(SELECT + where + " ORDER BY o.order_date DESC, o.id DESC LIMIT ?", args.toArray());
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.CreateOrderDTO;
+import com.example.projeto_postgres.dto.OrderCreatedDTO;
+import com.example.projeto_postgres.dto.OrderItemDTO;
+import com.example.projeto_postgres.dto.ProductDTO;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.model.OrderItem;
+import com.example.projeto_postgres.repository.CustomerRepository;
+import com.example.projeto_postgres.repository.OrderRepository;
+import com.example.projeto_postgres.repository.ProductRepository;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço de criação e exclusão de pedidos
+ *
+ * A criação é feita com um número fixo de idas ao banco, independente da
+ * quantidade de itens:
+ * 1. Os produtos vêm do cache do catálogo (ProductService); os ausentes são
+ *    buscados em uma única consulta (WHERE id IN (...))
+ * 2. O cliente e os produtos são usados como referência (getReferenceById),
+ *    sem SELECT; as chaves estrangeiras garantem que eles existem
+ * 3. O pedido e os itens são gravados em lotes JDBC no flush: como os IDs vêm
+ *    de sequences com allocationSize = 50, o Hibernate agrupa os INSERTs
+ *    (hibernate.jdbc.batch_size) e o driver os reescreve em INSERTs multi-linha
+ *
+ * O preço de cada produto é congelado no item (unitPriceInCents) e o pedido
+ * é gravado já com a quantidade de itens e o valor total (Order.addItem).
+ * O estoque dos produtos é reservado pelo StockService antes da gravação.
+ */
+@Service
+public class OrderService {
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public OrderCreatedDTO createOrder(CreateOrderDTO orderDTO) {
+        Map<Long, ProductDTO> products = findProducts(orderDTO.getItems());
+        stockService.reserve(orderDTO.getItems());
+
+        Order order = newOrder(orderDTO, products);
+
+        List<OrderCreatedDTO.Item> items = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            ProductDTO product = products.get(item.getProduct().getId());
+            items.add(new OrderCreatedDTO.Item(product.id(), product.name(),
+                    item.getQuantity(), item.getUnitPriceInCents(), item.getSubtotal()));
+        }
+
+        try {
+            orderRepository.saveAndFlush(order);
+        } catch (DataIntegrityViolationException e) {
+            // Um produto do cache pode ter sido deletado por outra instância (até expirar)
+            String missing = missingReference(e, orderDTO.getCustomerId());
+            if (missing == null) {
+                throw e;
+            }
+            throw new RuntimeException(missing);
+        }
+
+        return new OrderCreatedDTO(order.getId(), orderDTO.getCustomerId(), order.getOrderDate(),
+                order.getStatus(), items, order.getTotalAmountInCents());
+    }
+
+    /**
+     * Exclui o pedido em um único DELETE; o banco exclui os itens em cascata
+     * (ON DELETE CASCADE), sem carregar o pedido nem os itens
+     */
+    public void delete(Long id) {
+        if (jdbcTemplate.update("DELETE FROM orders WHERE id = ?", id) == 0) {
+            throw new RuntimeException("Pedido não encontrado");
+        }
+    }
+
+    /**
+     * Monta um pedido PENDING com cliente e produtos como referência (sem SELECT)
+     * e o preço de cada produto congelado no item
+     *
+     * Todos os produtos do pedido devem estar no mapa.
+     */
+    Order newOrder(CreateOrderDTO orderDTO, Map<Long, ProductDTO> products) {
+        Order order = new Order();
+        order.setCustomer(customerRepository.getReferenceById(orderDTO.getCustomerId()));
+        order.setStatus(Order.OrderStatus.PENDING);
+
+        for (OrderItemDTO itemDTO : orderDTO.getItems()) {
+            ProductDTO product = products.get(itemDTO.getProductId());
+
+            OrderItem item = new OrderItem();
+            item.setProduct(productRepository.getReferenceById(product.id()));
+            item.setQuantity(itemDTO.getQuantity());
+            item.setUnitPriceInCents(product.priceInCents());
+            order.addItem(item);
+        }
+        return order;
+    }
+
+    /**
+     * Mensagem do cliente ou produto inexistente que fez o banco recusar o pedido,
+     * identificado pela chave estrangeira violada (V1, V8 e V16); null se a
+     * violação for outra (check, unique, not null)
+     */
+    static String missingReference(DataIntegrityViolationException e, Long customerId) {
+        PSQLException psql = findPSQLException(e);
+        if (psql == null || !FOREIGN_KEY_VIOLATION.equals(psql.getSQLState())) {
+            return null;
+        }
+        ServerErrorMessage serverError = psql.getServerErrorMessage();
+        String constraint = serverError == null ? null : serverError.getConstraint();
+        if ("fk_orders_customer".equals(constraint)) {
+            return "Cliente não encontrado: " + customerId;
+        }
+        if ("fk_order_items_product".equals(constraint)) {
+            return "Produto não encontrado";
+        }
+        return null;
+    }
+
+    /**
+     * Erro do PostgreSQL na cadeia de causas; num lote JDBC ele vem como
+     * próxima exceção (getNextException) do BatchUpdateException
+     */
+    private static PSQLException findPSQLException(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            for (Throwable error = cause; error != null;
+                 error = error instanceof SQLException sql ? sql.getNextException() : null) {
+                if (error instanceof PSQLException psql) {
+                    return psql;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca todos os produtos do pedido (cache + no máximo uma consulta)
+     * e informa de uma vez todos os IDs que não existem
+     */
+    private Map<Long, ProductDTO> findProducts(List<OrderItemDTO> items) {
+        Set<Long> ids = items.stream()
+                .map(OrderItemDTO::getProductId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<Long, ProductDTO> products = productService.findAllById(ids);
+
+        List<Long> missing = ids.stream().filter(id -> !products.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new RuntimeException("Produtos não encontrados: " + missing);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.OrderStatusBatchResultDTO;
+import com.example.projeto_postgres.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Mudança de status dos pedidos, seguindo as transições de Order.OrderStatus
+ *
+ * Os pedidos não são carregados: um único UPDATE muda todos os pedidos da
+ * lista que estão em um status de origem permitido
+ * (WHERE id = ANY(?) AND status IN (...)) e devolve os IDs alterados
+ * (RETURNING). A condição no status é avaliada pelo próprio UPDATE, com o lock
+ * da linha, então duas mudanças concorrentes não passam por cima uma da outra.
+ * Só os pedidos que não mudaram são consultados depois, para informar o motivo.
+ *
+ * O UPDATE também incrementa a versão do pedido (ETag). Cada mudança roda pelo
+ * ConcurrencyRetry: se dois lotes com pedidos em comum se bloquearem
+ * (deadlock), o lote desfeito pelo PostgreSQL é repetido.
+ *
+ * Pedidos cancelados devolvem o estoque dos seus itens na mesma transação.
+ */
+@Service
+public class OrderStatusService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConcurrencyRetry concurrencyRetry;
+
+    @Autowired
+    private StockService stockService;
+
+    /**
+     * Converte o status recebido na requisição (sem diferenciar maiúsculas)
+     */
+    public static Order.OrderStatus parseStatus(String status) {
+        try {
+            return Order.OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Status inválido. Valores válidos: PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED");
+        }
+    }
+
+    /**
+     * Muda o status de um pedido
+     *
+     * @param expectedVersion versão do If-Match; null para aceitar qualquer versão
+     * @throws RuntimeException        se o pedido não existe (404)
+     * @throws ResponseStatusException 412 se o pedido não está na versão informada,
+     *                                 409 se a transição não é permitida
+     */
+    public void updateStatus(Long id, Order.OrderStatus target, Long expectedVersion) {
+        concurrencyRetry.execute(() -> {
+            Set<Order.OrderStatus> sources = target.allowedSources();
+            if (!sources.isEmpty()) {
+                List<Object> args = new ArrayList<>();
+                args.add(target.getCode());
+                args.add(id);
+                sources.forEach(source -> args.add(source.getCode()));
+                String versionCondition = "";
+                if (expectedVersion != null) {
+                    versionCondition = " AND version = ?";
+                    args.add(expectedVersion);
+                }
+                if (jdbcTemplate.update("UPDATE orders SET status = ?, version = version + 1 WHERE id = ? "
+                        + "AND status IN (" + placeholders(sources) + ")" + versionCondition, args.toArray()) > 0) {
+                    if (target == Order.OrderStatus.CANCELLED) {
+                        stockService.restoreCancelled(List.of(id));
+                    }
+                    return null;
+                }
+            }
+
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT status, version FROM orders WHERE id = ?", id);
+            if (rows.isEmpty()) {
+                throw new RuntimeException("Pedido não encontrado");
+            }
+            Order.OrderStatus current = Order.OrderStatus.fromCode(((Number) rows.get(0).get("status")).shortValue());
+            ConcurrencyRetry.requireVersion(expectedVersion, ((Number) rows.get(0).get("version")).longValue());
+            if (current != target) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, transitionError(current, target));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Muda o status de vários pedidos; IDs repetidos são considerados uma vez
+     */
+    public OrderStatusBatchResultDTO updateStatus(Collection<Long> ids, Order.OrderStatus target) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        return concurrencyRetry.execute(() -> apply(requested, target));
+    }
+
+    private OrderStatusBatchResultDTO apply(Set<Long> requested, Order.OrderStatus target) {
+        Set<Order.OrderStatus> sources = target.allowedSources();
+
+        Set<Long> updated = new HashSet<>();
+        if (!sources.isEmpty()) {
+            List<Object> args = new ArrayList<>();
+            args.add(target.getCode());
+            args.add(requested.toArray(Long[]::new));
+            sources.forEach(source -> args.add(source.getCode()));
+            updated.addAll(jdbcTemplate.queryForList(
+                    "UPDATE orders SET status = ?, version = version + 1 WHERE id = ANY(?) "
+                            + "AND status IN (" + placeholders(sources) + ") RETURNING id",
+                    Long.class, args.toArray()));
+            if (target == Order.OrderStatus.CANCELLED) {
+                stockService.restoreCancelled(updated);
+            }
+        }
+
+        Map<Long, Order.OrderStatus> current = new HashMap<>();
+        if (updated.size() < requested.size()) {
+            jdbcTemplate.query("SELECT id, status FROM orders WHERE id = ANY(?)",
+                    (RowCallbackHandler) rs -> current.put(rs.getLong(1), Order.OrderStatus.fromCode(rs.getShort(2))),
+                    (Object) requested.stream().filter(id -> !updated.contains(id)).toArray(Long[]::new));
+        }
+
+        List<Long> changed = new ArrayList<>();
+        List<Long> unchanged = new ArrayList<>();
+        List<OrderStatusBatchResultDTO.Rejected> rejected = new ArrayList<>();
+        for (Long id : requested) {
+            Order.OrderStatus status = current.get(id);
+            if (updated.contains(id)) {
+                changed.add(id);
+            } else if (status == null) {
+                rejected.add(new OrderStatusBatchResultDTO.Rejected(id, null, "Pedido não encontrado"));
+            } else if (status == target) {
+                unchanged.add(id);
+            } else {
+                rejected.add(new OrderStatusBatchResultDTO.Rejected(id, status, transitionError(status, target)));
+            }
+        }
+        return new OrderStatusBatchResultDTO(target, changed, unchanged, rejected);
+    }
+
+    private static String placeholders(Set<Order.OrderStatus> sources) {
+        return sources.stream().map(source -> "?").collect(Collectors.joining(", "));
+    }
+
+    private static String transitionError(Order.OrderStatus current, Order.OrderStatus target) {
+        return "Transição de status não permitida: " + current + " -> " + target;
+    }
+}
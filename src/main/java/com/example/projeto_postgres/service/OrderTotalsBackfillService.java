@@ -0,0 +1,74 @@
+package com.example.projeto_postgres.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Preenchimento (backfill) do preço congelado dos itens e dos totais dos pedidos
+ *
+ * Pedidos criados antes da migration V3 não têm order_items.unit_price_in_cents
+ * nem orders.item_count/total_amount_in_cents. Este serviço preenche essas
+ * colunas em lotes de app.backfill.order-totals.chunk-size linhas:
+ * 1. Itens: o preço congelado recebe o preço atual do produto (o preço da
+ *    época da compra não foi guardado, é a melhor informação disponível)
+ * 2. Pedidos: quantidade de itens e total calculados a partir dos itens
+ *
+ * Cada lote é um UPDATE em sua própria transação (sem @Transactional), então
+ * os locks duram só o lote e uma interrupção não desfaz o que já foi gravado.
+ * Os lotes são encontrados pelos índices parciais da V4 (linhas com a coluna
+ * nula); pedidos novos já são gravados preenchidos, então rodar de novo é seguro.
+ */
+@Service
+public class OrderTotalsBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderTotalsBackfillService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.backfill.order-totals.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Preenche todas as linhas pendentes
+     *
+     * @return quantidade de pedidos preenchidos
+     */
+    public long backfill() {
+        long items = runInChunks(
+                "UPDATE order_items i SET unit_price_in_cents = p.price_in_cents FROM products p "
+                        + "WHERE p.id = i.product_id AND i.id IN ("
+                        + "SELECT id FROM order_items WHERE unit_price_in_cents IS NULL ORDER BY id LIMIT ?)");
+
+        // Os itens sem preço são de pedidos antigos, já cobertos pelo passo anterior
+        long orders = runInChunks(
+                "UPDATE orders o SET item_count = t.item_count, total_amount_in_cents = t.total "
+                        + "FROM (SELECT p.id, count(i.id) AS item_count, "
+                        + "coalesce(sum(i.quantity::bigint * i.unit_price_in_cents), 0) AS total "
+                        + "FROM (SELECT id FROM orders WHERE total_amount_in_cents IS NULL ORDER BY id LIMIT ?) p "
+                        + "LEFT JOIN order_items i ON i.order_id = p.id GROUP BY p.id) t "
+                        + "WHERE o.id = t.id");
+
+        if (items > 0 || orders > 0) {
+            log.info("Backfill de totais concluído: {} itens e {} pedidos preenchidos", items, orders);
+        }
+        return orders;
+    }
+
+    private long runInChunks(String sql) {
+        long total = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(sql, chunkSize);
+            total += updated;
+            if (updated > 0) {
+                log.debug("Backfill de totais: {} linhas no lote, {} no total", updated, total);
+            }
+        } while (updated == chunkSize);
+        return total;
+    }
+}
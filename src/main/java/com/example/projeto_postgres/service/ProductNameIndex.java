@@ -0,0 +1,500 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.ProductSuggestionDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Índice em memória dos nomes dos produtos para o autocomplete
+ *
+ * O autocomplete roda a cada tecla digitada, então não vai ao banco. Os nomes
+ * são normalizados (minúsculas, sem acentos nem pontuação) e cada palavra do
+ * nome vira uma entrada: o sufixo do nome a partir dela. As entradas ficam
+ * ordenadas, então as que começam com o prefixo digitado são um intervalo
+ * contíguo, encontrado por busca binária ("cad" encontra "Cadeira gamer",
+ * "gam" e "cadeira gam" também).
+ *
+ * Para ocupar pouca memória, o índice (Snapshot) não guarda um objeto por
+ * produto: nomes e chaves ficam concatenados em byte[] (UTF-8) e as entradas
+ * são posições em um int[]. O Snapshot é imutável; criações, alterações e
+ * exclusões feitas pelo ProductController entram em uma camada de alterações
+ * (Delta) consultada junto com ele. Quando a camada passa de
+ * app.autocomplete.rebuild-threshold produtos, e a cada
+ * app.autocomplete.rebuild-interval, o índice é reconstruído a partir do banco
+ * em segundo plano, o que também traz as alterações feitas por outras
+ * instâncias ou direto no banco.
+ *
+ * Métricas (GET /actuator/metrics/...): autocomplete.index.products,
+ * autocomplete.index.entries, autocomplete.index.memory (bytes),
+ * autocomplete.index.pending (produtos na camada de alterações) e
+ * autocomplete.index.rebuild (tempo das reconstruções).
+ */
+@Service
+public class ProductNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductNameIndex.class);
+
+    private static final int FETCH_SIZE = 5000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.autocomplete.rebuild-threshold:10000}")
+    private int rebuildThreshold;
+
+    private volatile State state = new State(Snapshot.EMPTY, null, new Delta());
+
+    /**
+     * Serializa as escritas na camada de alterações e as trocas de estado
+     */
+    private final Object writeLock = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private ExecutorService rebuildExecutor;
+    private Timer rebuildTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        rebuildExecutor = Executors.newSingleThreadExecutor(task -> new Thread(task, "autocomplete-rebuild"));
+        Gauge.builder("autocomplete.index.products", this, index -> index.state.snapshot.size())
+                .description("Produtos no índice do autocomplete (sem a camada de alterações)")
+                .register(meterRegistry);
+        Gauge.builder("autocomplete.index.entries", this, index -> index.state.snapshot.entries.length)
+                .description("Entradas (palavras) no índice do autocomplete")
+                .register(meterRegistry);
+        Gauge.builder("autocomplete.index.memory", this, index -> index.state.snapshot.bytes())
+                .description("Memória ocupada pelos arrays do índice do autocomplete")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("autocomplete.index.pending", this, index -> index.state.pending())
+                .description("Produtos alterados desde a última reconstrução do índice")
+                .register(meterRegistry);
+        rebuildTimer = Timer.builder("autocomplete.index.rebuild")
+                .description("Tempo de reconstrução do índice do autocomplete a partir do banco")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stopRebuildExecutor() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Produtos cujo nome tem uma palavra que começa com o prefixo, em ordem alfabética a partir dela
+     *
+     * O prefixo é normalizado como os nomes: "CAFÉ" e "cafe" são iguais.
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        State current = state;
+        List<Candidate> candidates = new ArrayList<>();
+        current.snapshot.collect(normalized.getBytes(StandardCharsets.UTF_8), limit,
+                id -> current.hiddenAbove(null, id), candidates);
+        if (current.older != null) {
+            current.older.collect(normalized, limit, id -> current.hiddenAbove(current.older, id), candidates);
+        }
+        current.delta.collect(normalized, limit, id -> false, candidates);
+
+        candidates.sort(Comparator.comparing(Candidate::key).thenComparing(Candidate::id));
+        Set<Long> seen = new HashSet<>();
+        List<ProductSuggestionDTO> suggestions = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (suggestions.size() == limit) {
+                break;
+            }
+            if (seen.add(candidate.id())) {
+                suggestions.add(new ProductSuggestionDTO(candidate.id(), candidate.name()));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Registra um produto criado ou renomeado (chamado depois do commit)
+     */
+    public void put(Long id, String name) {
+        synchronized (writeLock) {
+            state.delta.put(id, name);
+        }
+        rebuildIfNeeded();
+    }
+
+    /**
+     * Retira um produto deletado do índice (chamado depois do commit)
+     */
+    public void remove(Long id) {
+        synchronized (writeLock) {
+            state.delta.remove(id);
+        }
+        rebuildIfNeeded();
+    }
+
+    /**
+     * Reconstrói o índice a partir do banco
+     *
+     * As alterações recebidas durante a leitura vão para uma camada nova, que
+     * continua valendo sobre o índice reconstruído: reaplicá-las é inofensivo
+     * mesmo que a leitura já as tenha visto.
+     */
+    @Scheduled(fixedDelayString = "${app.autocomplete.rebuild-interval:10m}",
+            initialDelayString = "${app.autocomplete.rebuild-interval:10m}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            synchronized (writeLock) {
+                state = new State(state.snapshot, state.delta, new Delta());
+            }
+            try {
+                Snapshot snapshot = load();
+                synchronized (writeLock) {
+                    state = new State(snapshot, null, state.delta);
+                }
+                long elapsed = System.nanoTime() - start;
+                rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                log.info("Índice do autocomplete reconstruído: {} produtos, {} entradas, {} KB em {} ms",
+                        snapshot.size(), snapshot.entries.length, snapshot.bytes() / 1024,
+                        TimeUnit.NANOSECONDS.toMillis(elapsed));
+            } catch (DataAccessException e) {
+                // Mantém o índice anterior: as alterações da camada nova voltam para a antiga
+                synchronized (writeLock) {
+                    state.older.replay(state.delta);
+                    state = new State(state.snapshot, null, state.older);
+                }
+                log.warn("Falha ao reconstruir o índice do autocomplete; o índice anterior continua em uso", e);
+            }
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void rebuildIfNeeded() {
+        if (state.pending() >= rebuildThreshold && !rebuilding.get()) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Lê os produtos em streaming (fetch size, dentro de uma transação), sem
+     * carregar o resultado inteiro na memória do driver
+     */
+    private Snapshot load() {
+        Snapshot.Builder builder = new Snapshot.Builder();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT id, name FROM products");
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> builder.add(rs.getLong("id"), rs.getString("name"))));
+        return builder.build();
+    }
+
+    /**
+     * Minúsculas, sem acentos, e só letras e dígitos separados por um espaço
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (space && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private record Candidate(String key, Long id, String name) {
+    }
+
+    /**
+     * Snapshot do índice mais as camadas de alterações: older só existe durante
+     * uma reconstrução (alterações anteriores a ela), delta recebe as novas
+     */
+    private record State(Snapshot snapshot, Delta older, Delta delta) {
+
+        /**
+         * Se o produto foi alterado em uma camada acima de layer (null = acima do snapshot)
+         */
+        boolean hiddenAbove(Delta layer, long id) {
+            if (layer == null && older != null && older.hidden.contains(id)) {
+                return true;
+            }
+            return delta.hidden.contains(id);
+        }
+
+        int pending() {
+            return delta.hidden.size() + (older == null ? 0 : older.hidden.size());
+        }
+    }
+
+    /**
+     * Camada de alterações desde a última reconstrução
+     */
+    private static final class Delta {
+        /**
+         * Chave: sufixo normalizado + '\0' + ID (única por produto e palavra)
+         */
+        final ConcurrentSkipListMap<String, Long> entries = new ConcurrentSkipListMap<>();
+        final Map<Long, String> names = new ConcurrentHashMap<>();
+        /**
+         * Produtos alterados aqui: as suas entradas nas camadas de baixo estão obsoletas
+         */
+        final Set<Long> hidden = ConcurrentHashMap.newKeySet();
+
+        void put(Long id, String name) {
+            remove(id);
+            names.put(id, name);
+            forEachSuffix(normalize(name), suffix -> entries.put(suffix + '\0' + id, id));
+        }
+
+        void remove(Long id) {
+            hidden.add(id);
+            String previous = names.remove(id);
+            if (previous != null) {
+                forEachSuffix(normalize(previous), suffix -> entries.remove(suffix + '\0' + id));
+            }
+        }
+
+        void replay(Delta later) {
+            for (Long id : later.hidden) {
+                String name = later.names.get(id);
+                if (name == null) {
+                    remove(id);
+                } else {
+                    put(id, name);
+                }
+            }
+        }
+
+        void collect(String prefix, int limit, LongPredicate hiddenAbove, List<Candidate> candidates) {
+            Set<Long> found = new HashSet<>();
+            for (Map.Entry<String, Long> entry : entries.tailMap(prefix).entrySet()) {
+                if (!entry.getKey().startsWith(prefix) || found.size() == limit) {
+                    break;
+                }
+                Long id = entry.getValue();
+                String name = names.get(id);
+                if (name != null && !hiddenAbove.test(id) && found.add(id)) {
+                    String key = entry.getKey();
+                    candidates.add(new Candidate(key.substring(0, key.lastIndexOf('\0')), id, name));
+                }
+            }
+        }
+
+        private static void forEachSuffix(String normalized, Consumer<String> action) {
+            for (int i = 0; i < normalized.length(); i++) {
+                if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                    action.accept(normalized.substring(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Índice imutável: arrays primitivos em vez de um objeto por produto
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Builder().build();
+
+        final long[] ids;
+        /**
+         * Nomes normalizados concatenados; o do produto i fica em [keyStart[i], keyStart[i + 1])
+         */
+        final byte[] keys;
+        final int[] keyStart;
+        /**
+         * Nomes originais concatenados, para a resposta
+         */
+        final byte[] names;
+        final int[] nameStart;
+        /**
+         * Posição (em keys) do início de cada palavra, ordenadas pelo sufixo a partir dela
+         */
+        final int[] entries;
+        final int[] entryProduct;
+
+        private Snapshot(long[] ids, byte[] keys, int[] keyStart, byte[] names, int[] nameStart,
+                         int[] entries, int[] entryProduct) {
+            this.ids = ids;
+            this.keys = keys;
+            this.keyStart = keyStart;
+            this.names = names;
+            this.nameStart = nameStart;
+            this.entries = entries;
+            this.entryProduct = entryProduct;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        long bytes() {
+            return ids.length * 8L + keys.length + keyStart.length * 4L + names.length + nameStart.length * 4L
+                    + entries.length * 4L + entryProduct.length * 4L;
+        }
+
+        void collect(byte[] prefix, int limit, LongPredicate hiddenAbove, List<Candidate> candidates) {
+            Set<Long> found = new HashSet<>();
+            for (int e = lowerBound(prefix); e < entries.length && found.size() < limit; e++) {
+                int product = entryProduct[e];
+                int start = entries[e];
+                int end = keyStart[product + 1];
+                if (end - start < prefix.length
+                        || Arrays.compareUnsigned(keys, start, start + prefix.length, prefix, 0, prefix.length) != 0) {
+                    break;
+                }
+                long id = ids[product];
+                if (!hiddenAbove.test(id) && found.add(id)) {
+                    candidates.add(new Candidate(new String(keys, start, end - start, StandardCharsets.UTF_8), id,
+                            new String(names, nameStart[product], nameStart[product + 1] - nameStart[product],
+                                    StandardCharsets.UTF_8)));
+                }
+            }
+        }
+
+        /**
+         * Primeira entrada cujo sufixo não é menor que o prefixo
+         */
+        private int lowerBound(byte[] prefix) {
+            int low = 0;
+            int high = entries.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int start = entries[middle];
+                int end = Math.min(keyStart[entryProduct[middle] + 1], start + prefix.length);
+                if (Arrays.compareUnsigned(keys, start, end, prefix, 0, prefix.length) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        static final class Builder {
+            private final ByteArrayOutputStream keys = new ByteArrayOutputStream();
+            private final ByteArrayOutputStream names = new ByteArrayOutputStream();
+            private long[] ids = new long[1024];
+            private int[] keyStart = new int[1025];
+            private int[] nameStart = new int[1025];
+            private int size;
+            private int entryCount;
+
+            void add(long id, String name) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    keyStart = Arrays.copyOf(keyStart, size * 2 + 1);
+                    nameStart = Arrays.copyOf(nameStart, size * 2 + 1);
+                }
+                byte[] key = normalize(name).getBytes(StandardCharsets.UTF_8);
+                for (int i = 0; i < key.length; i++) {
+                    if (i == 0 || key[i - 1] == ' ') {
+                        entryCount++;
+                    }
+                }
+                ids[size] = id;
+                keys.writeBytes(key);
+                names.writeBytes(name.getBytes(StandardCharsets.UTF_8));
+                size++;
+                keyStart[size] = keys.size();
+                nameStart[size] = names.size();
+            }
+
+            Snapshot build() {
+                byte[] keyBytes = keys.toByteArray();
+                int[] productKeyStart = Arrays.copyOf(keyStart, size + 1);
+                Integer[] order = new Integer[entryCount];
+                int[] positions = new int[entryCount];
+                int[] products = new int[entryCount];
+                int entry = 0;
+                for (int product = 0; product < size; product++) {
+                    for (int i = productKeyStart[product]; i < productKeyStart[product + 1]; i++) {
+                        if (i == productKeyStart[product] || keyBytes[i - 1] == ' ') {
+                            positions[entry] = i;
+                            products[entry] = product;
+                            order[entry] = entry;
+                            entry++;
+                        }
+                    }
+                }
+                Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(
+                        keyBytes, positions[a], productKeyStart[products[a] + 1],
+                        keyBytes, positions[b], productKeyStart[products[b] + 1]));
+
+                int[] entries = new int[entryCount];
+                int[] entryProduct = new int[entryCount];
+                for (int i = 0; i < entryCount; i++) {
+                    entries[i] = positions[order[i]];
+                    entryProduct[i] = products[order[i]];
+                }
+                return new Snapshot(Arrays.copyOf(ids, size), keyBytes, productKeyStart, names.toByteArray(),
+                        Arrays.copyOf(nameStart, size + 1), entries, entryProduct);
+            }
+        }
+    }
+}
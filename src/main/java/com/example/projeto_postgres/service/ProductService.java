@@ -0,0 +1,213 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.config.CacheConfig;
+import com.example.projeto_postgres.dto.ProductDTO;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serviço do catálogo de produtos com cache de leitura (read-through)
+ *
+ * O cache "products" guarda ProductDTO por ID:
+ * - findById e findAllById consultam o cache e só vão ao banco para os IDs ausentes
+ * - update grava o produto atualizado no cache depois do commit e delete remove
+ *   a entrada, então a próxima leitura já vê o valor novo
+ * - Com spring.cache.type=none o cache vira um no-op e toda leitura vai ao banco
+ *
+ * A atualização é protegida pela versão do produto (@Version): com If-Match a
+ * versão lida precisa ser a informada (senão 412); sem ele, a atualização que
+ * perde para outra simultânea é repetida pelo ConcurrencyRetry.
+ * Como a versão é o ETag, o cache nunca troca uma versão por outra mais antiga
+ * (cacheLatest): uma leitura lenta que começou antes de uma atualização não
+ * devolve o valor antigo ao cache.
+ *
+ * A busca por nome (search) vai direto ao banco, pelo índice de trigramas
+ * (pg_trgm) de products.name, sem passar pelo cache. Atualizações e exclusões
+ * também são repassadas ao índice em memória do autocomplete (ProductNameIndex).
+ */
+@Service
+public class ProductService {
+
+    /**
+     * Tamanho máximo do termo de busca (o mesmo da coluna name)
+     */
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    /**
+     * Busca por trigramas: "? <% name" é verdadeiro quando o termo aparece em
+     * alguma parte do nome com word_similarity acima de pg_trgm.word_similarity_threshold,
+     * o que tolera erros de digitação. O limite é 0.5, definido em cada conexão do pool
+     * por spring.datasource.hikari.connection-init-sql. O operador é atendido
+     * pelo índice GIN idx_products_name_trgm (V10); só as linhas encontradas
+     * por ele são ordenadas pela similaridade.
+     */
+    private static final String SEARCH_SQL = "SELECT id, name, price_in_cents, version FROM products "
+            + "WHERE ? <% name AND price_in_cents BETWEEN ? AND ? "
+            + "ORDER BY word_similarity(?, name) DESC, id LIMIT ?";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConcurrencyRetry concurrencyRetry;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductNameIndex productNameIndex;
+
+    /**
+     * Busca um produto pelo ID, passando pelo cache
+     * Produtos inexistentes não são guardados no cache
+     */
+    public Optional<ProductDTO> findById(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        ProductDTO cached = cache == null ? null : cache.get(id, ProductDTO.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<ProductDTO> product = productRepository.findDTOById(id);
+        product.ifPresent(found -> cacheLatest(cache, found));
+        return product;
+    }
+
+    /**
+     * Busca vários produtos: os que estão no cache vêm da memória e os demais
+     * são buscados em uma única consulta (WHERE id IN (...)) e guardados no cache
+     *
+     * @return produtos encontrados por ID (IDs inexistentes ficam de fora)
+     */
+    public Map<Long, ProductDTO> findAllById(Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Map<Long, ProductDTO> products = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            ProductDTO cached = cache == null ? null : cache.get(id, ProductDTO.class);
+            if (cached != null) {
+                products.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (ProductDTO product : productRepository.findDTOsByIdIn(missing)) {
+                products.put(product.id(), product);
+                cacheLatest(cache, product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Busca produtos pelo nome, do mais parecido com o termo para o menos parecido
+     *
+     * @param minPriceInCents preço mínimo; null para não filtrar
+     * @param maxPriceInCents preço máximo; null para não filtrar
+     * @param limit           quantidade máxima de resultados (já limitada ao máximo da paginação)
+     * @throws ResponseStatusException 400 se o termo é vazio ou longo demais, ou a faixa de preço é inválida
+     */
+    public List<ProductDTO> search(String query, Integer minPriceInCents, Integer maxPriceInCents, int limit) {
+        String term = query == null ? "" : query.strip();
+        if (term.isEmpty() || term.length() > MAX_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "O termo de busca deve ter entre 1 e " + MAX_QUERY_LENGTH + " caracteres");
+        }
+        int min = minPriceInCents == null ? 0 : minPriceInCents;
+        int max = maxPriceInCents == null ? Integer.MAX_VALUE : maxPriceInCents;
+        if (min > max) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O preço mínimo é maior que o preço máximo");
+        }
+
+        return jdbcTemplate.query(SEARCH_SQL,
+                (rs, rowNum) -> new ProductDTO(rs.getLong("id"), rs.getString("name"),
+                        rs.getInt("price_in_cents"), rs.getLong("version")),
+                term, min, max, term, limit);
+    }
+
+    /**
+     * Atualiza nome e preço do produto, grava a nova versão no cache e o novo nome no autocomplete
+     *
+     * @param expectedVersion versão do If-Match; null para aceitar qualquer versão
+     */
+    public ProductDTO update(Long id, Product productDetails, Long expectedVersion) {
+        ProductDTO updated = concurrencyRetry.execute(() -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Produto não encontrado"));
+            ConcurrencyRetry.requireVersion(expectedVersion, product.getVersion());
+
+            product.setName(productDetails.getName());
+            product.setPriceInCents(productDetails.getPriceInCents());
+
+            return ProductDTO.from(productRepository.saveAndFlush(product));
+        });
+        cacheLatest(cacheManager.getCache(CacheConfig.PRODUCTS), updated);
+        productNameIndex.put(updated.id(), updated.name());
+        return updated;
+    }
+
+    /**
+     * Deleta o produto e remove a entrada do cache e do autocomplete
+     *
+     * Um único DELETE, sem carregar o histórico de vendas. Um produto que já
+     * foi vendido não é deletado: a chave estrangeira de order_items recusa o
+     * DELETE, sem verificação prévia que outro pedido poderia furar.
+     *
+     * @throws ResponseStatusException 409 se o produto tem itens de pedido
+     */
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public void delete(Long id) {
+        int deleted;
+        try {
+            deleted = jdbcTemplate.update("DELETE FROM products WHERE id = ?", id);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "O produto tem pedidos e não pode ser deletado; o histórico de vendas é preservado");
+        }
+        if (deleted == 0) {
+            throw new RuntimeException("Produto não encontrado");
+        }
+        stockService.forget(id);
+        productNameIndex.remove(id);
+    }
+
+    /**
+     * Guarda o produto no cache, a menos que o cache já tenha uma versão mais nova
+     */
+    @SuppressWarnings("unchecked")
+    private static void cacheLatest(Cache cache, ProductDTO product) {
+        if (cache == null) {
+            return;
+        }
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine).asMap().merge(product.id(), product,
+                    (current, candidate) -> ((ProductDTO) current).version() >= ((ProductDTO) candidate).version()
+                            ? current : candidate);
+        } else {
+            cache.put(product.id(), product);
+        }
+    }
+}
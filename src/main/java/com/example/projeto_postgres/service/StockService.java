@@ -0,0 +1,479 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.dto.OrderItemDTO;
+import com.example.projeto_postgres.dto.ProductStockDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reserva de estoque dos pedidos com contadores em memória
+ *
+ * Com SELECT ... FOR UPDATE, os pedidos de um produto muito vendido esperariam,
+ * um atrás do outro, o lock da mesma linha até o commit do pedido anterior.
+ * Aqui:
+ * 1. Cada produto com estoque tem um contador em memória com as unidades já
+ *    retiradas do banco e ainda não vendidas, dividido em app.stock.stripes
+ *    partes (AtomicInteger). A reserva é um compare-and-set em uma das partes,
+ *    sem lock e sem ir ao banco
+ * 2. Quando o contador não tem o suficiente, uma única thread por produto (lock
+ *    do contador) retira do banco com um UPDATE condicional atômico
+ *    (SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?)
+ *    o que falta mais app.stock.reservation-block unidades para os pedidos
+ *    seguintes; perto do fim do estoque retira só o necessário
+ * 3. A cada app.stock.reconcile-interval (e no desligamento) as unidades não
+ *    usadas voltam ao banco e os contadores são descartados
+ *
+ * O UPDATE roda na transação do pedido, na mesma conexão: uma transação
+ * separada precisaria de uma segunda conexão por pedido e, com o pool cheio de
+ * pedidos esperando, ninguém conseguiria reabastecer. Por isso as unidades
+ * retiradas só entram no contador depois do commit; se a transação for
+ * desfeita, o próprio banco as recupera e só as unidades que vieram do
+ * contador voltam para ele.
+ *
+ * Cada unidade está em um só lugar (banco, contador ou pedido), então o
+ * estoque nunca é vendido duas vezes. Se a instância cair, as unidades dos
+ * contadores se perdem: o estoque fica menor que o real, nunca maior.
+ * Os produtos de um pedido são reservados em ordem de ID e o lock de um
+ * contador nunca é mantido ao reservar o próximo produto. O UPDATE que
+ * reabastece um contador espera, com o lock do contador, a linha do produto,
+ * que fica travada até o commit da transação que a alterou; essa espera não é
+ * vista pelo detector de deadlocks do PostgreSQL. Por isso cada transação
+ * chama reserve uma única vez, com todos os itens que vai gravar (a criação em
+ * lote soma os pedidos do bloco): assim ela só trava linhas em ordem de ID e
+ * nunca volta a esperar o contador de um produto cuja linha já travou, e as
+ * reservas simultâneas não entram em deadlock.
+ */
+@Service
+public class StockService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.stock.reservation-block:20}")
+    private int reservationBlock;
+
+    @Value("${app.stock.stripes:8}")
+    private int stripes;
+
+    @Value("${app.stock.reconcile-interval:5s}")
+    private Duration reconcileInterval;
+
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+    private Cache<Long, Boolean> untracked;
+
+    @PostConstruct
+    void init() {
+        // Produtos sem controle de estoque, relidos a cada reconcile-interval
+        // (um produto passa a ter estoque com POST /products/{id}/stock)
+        untracked = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(reconcileInterval)
+                .build();
+    }
+
+    /**
+     * Reserva o estoque dos itens de um pedido
+     *
+     * Na transação do pedido, a reserva é devolvida se ela for desfeita. Se a
+     * reserva falhar e a transação continuar, as unidades já retiradas para os
+     * outros produtos do pedido voltam ao contador no commit.
+     *
+     * @throws InsufficientStockException 409 se algum produto não tiver estoque;
+     *                                    nenhum produto do pedido fica reservado
+     */
+    public void reserve(List<OrderItemDTO> items) {
+        reserve(items, classify(items.stream().map(OrderItemDTO::getProductId).toList()));
+    }
+
+    /**
+     * Reserva o estoque dos itens com os produtos já classificados (classify)
+     *
+     * Uma única chamada por transação (veja a descrição da classe).
+     */
+    void reserve(List<OrderItemDTO> items, Set<Long> tracked) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItemDTO item : items) {
+            // Uma soma acima de int não cabe em stock_quantity: fica no máximo e falta estoque
+            quantities.merge(item.getProductId(), item.getQuantity(),
+                    (a, b) -> (int) Math.min((long) a + b, Integer.MAX_VALUE));
+        }
+
+        Map<Long, Taken> taken = new TreeMap<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                if (tracked.contains(entry.getKey())) {
+                    taken.put(entry.getKey(), take(entry.getKey(), entry.getValue()));
+                }
+            }
+        } catch (RuntimeException e) {
+            // O pedido não será criado: nada do que foi retirado é consumido
+            settle(taken, Map.of());
+            throw e;
+        }
+        settle(taken, quantities);
+    }
+
+    /**
+     * Acerta os contadores quando a transação termina (ou já, sem transação)
+     *
+     * No commit, o que foi retirado e não foi consumido pelo pedido vai para o
+     * contador. Se a transação for desfeita, o banco recupera o que o UPDATE
+     * retirou e só o que veio do contador volta para ele.
+     */
+    private void settle(Map<Long, Taken> taken, Map<Long, Integer> consumed) {
+        if (taken.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            taken.forEach((id, units) -> giveBack(id, units.total() - consumed.getOrDefault(id, 0)));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                taken.forEach((id, units) -> giveBack(id, status == STATUS_COMMITTED
+                        ? units.total() - consumed.getOrDefault(id, 0)
+                        : units.fromCounter()));
+            }
+        });
+    }
+
+    /**
+     * Dos produtos informados, retorna os que têm controle de estoque
+     *
+     * Os produtos ainda desconhecidos são consultados de uma vez. Usado também
+     * pela criação em lote, para classificar todos os produtos do lote com uma
+     * única consulta.
+     */
+    public Set<Long> classify(Collection<Long> productIds) {
+        Set<Long> tracked = new HashSet<>();
+        Set<Long> unknown = new HashSet<>();
+        for (Long id : productIds) {
+            if (counters.containsKey(id)) {
+                tracked.add(id);
+            } else if (untracked.getIfPresent(id) == null) {
+                unknown.add(id);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return tracked;
+        }
+
+        Map<Long, Boolean> hasStock = new HashMap<>();
+        jdbcTemplate.query("SELECT id, stock_quantity IS NOT NULL FROM products WHERE id = ANY(?)",
+                (RowCallbackHandler) rs -> hasStock.put(rs.getLong(1), rs.getBoolean(2)),
+                (Object) unknown.toArray(Long[]::new));
+        for (Long id : unknown) {
+            // Produtos inexistentes ficam de fora: a chave estrangeira rejeita o pedido
+            Boolean stock = hasStock.get(id);
+            if (Boolean.TRUE.equals(stock)) {
+                tracked.add(id);
+            } else if (stock != null) {
+                untracked.put(id, Boolean.TRUE);
+            }
+        }
+        return tracked;
+    }
+
+    /**
+     * Estoque disponível: o que está no banco mais o que está no contador desta instância
+     */
+    public ProductStockDTO findStock(Long productId) {
+        List<Integer> rows = jdbcTemplate.query("SELECT stock_quantity FROM products WHERE id = ?",
+                (rs, rowNum) -> (Integer) rs.getObject(1), productId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Produto não encontrado");
+        }
+        return new ProductStockDTO(productId, withLocal(productId, rows.get(0)));
+    }
+
+    /**
+     * Dá entrada de estoque; um produto sem controle passa a ter estoque
+     */
+    public ProductStockDTO restock(Long productId, int quantity) {
+        List<Integer> rows = jdbcTemplate.queryForList("UPDATE products "
+                        + "SET stock_quantity = coalesce(stock_quantity, 0) + ? WHERE id = ? RETURNING stock_quantity",
+                Integer.class, quantity, productId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Produto não encontrado");
+        }
+        untracked.invalidate(productId);
+        return new ProductStockDTO(productId, withLocal(productId, rows.get(0)));
+    }
+
+    /**
+     * Devolve ao banco o estoque dos itens de pedidos cancelados
+     *
+     * Deve rodar na transação que cancela os pedidos. Os produtos são travados
+     * em ordem de ID antes do UPDATE, para que cancelamentos simultâneos com
+     * produtos em comum não entrem em deadlock.
+     */
+    public void restoreCancelled(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Object ids = orderIds.toArray(Long[]::new);
+        jdbcTemplate.query("SELECT id FROM products WHERE stock_quantity IS NOT NULL AND id IN ("
+                        + "SELECT product_id FROM order_items WHERE order_id = ANY(?)) ORDER BY id FOR NO KEY UPDATE",
+                (RowCallbackHandler) rs -> { }, ids);
+        jdbcTemplate.update("UPDATE products p SET stock_quantity = p.stock_quantity + i.quantity "
+                + "FROM (SELECT product_id, sum(quantity) AS quantity FROM order_items "
+                + "WHERE order_id = ANY(?) GROUP BY product_id) i "
+                + "WHERE p.id = i.product_id AND p.stock_quantity IS NOT NULL", ids);
+    }
+
+    /**
+     * Descarta o contador de um produto deletado
+     */
+    public void forget(Long productId) {
+        StockCounter counter = counters.remove(productId);
+        if (counter != null) {
+            counter.lock.lock();
+            try {
+                counter.retired = true;
+            } finally {
+                counter.lock.unlock();
+            }
+        }
+        untracked.invalidate(productId);
+    }
+
+    /**
+     * Devolve ao banco as unidades não usadas dos contadores e os descarta
+     *
+     * Um contador descartado não recebe mais unidades: a próxima reserva do
+     * produto cria outro e o reabastece do banco.
+     */
+    @Scheduled(fixedDelayString = "${app.stock.reconcile-interval:5s}",
+            initialDelayString = "${app.stock.reconcile-interval:5s}")
+    public void reconcile() {
+        long returned = 0;
+        for (Map.Entry<Long, StockCounter> entry : counters.entrySet()) {
+            StockCounter counter = entry.getValue();
+            counter.lock.lock();
+            try {
+                int leftover = counter.drain();
+                if (leftover > 0) {
+                    try {
+                        jdbcTemplate.update("UPDATE products SET stock_quantity = stock_quantity + ? WHERE id = ?",
+                                leftover, entry.getKey());
+                        returned += leftover;
+                    } catch (DataAccessException e) {
+                        // Banco indisponível: as unidades continuam no contador até a próxima rodada
+                        counter.spread(leftover);
+                        log.warn("Falha ao devolver {} unidades do produto {} ao estoque", leftover, entry.getKey(), e);
+                        continue;
+                    }
+                }
+                counter.retired = true;
+                counters.remove(entry.getKey(), counter);
+            } finally {
+                counter.lock.unlock();
+            }
+        }
+        if (returned > 0) {
+            log.debug("Reconciliação de estoque: {} unidades devolvidas ao banco", returned);
+        }
+    }
+
+    @PreDestroy
+    void returnReservationsOnShutdown() {
+        reconcile();
+    }
+
+    /**
+     * Retira a quantidade do contador do produto, recorrendo ao banco se preciso
+     */
+    private Taken take(Long productId, int quantity) {
+        while (true) {
+            StockCounter counter = counters.computeIfAbsent(productId, id -> new StockCounter(stripes));
+            if (counter.tryTake(quantity)) {
+                return new Taken(quantity, 0);
+            }
+            counter.lock.lock();
+            try {
+                if (counter.retired) {
+                    continue;
+                }
+                if (counter.tryTake(quantity)) {
+                    return new Taken(quantity, 0);
+                }
+                // A quantidade pode estar espalhada entre as partes: junta tudo antes de ir ao banco
+                int local = counter.drain();
+                if (local >= quantity) {
+                    counter.spread(local - quantity);
+                    return new Taken(quantity, 0);
+                }
+                int fetched;
+                try {
+                    fetched = fetch(productId, quantity - local);
+                } catch (RuntimeException e) {
+                    counter.spread(local);
+                    throw e;
+                }
+                if (fetched == 0) {
+                    counter.spread(local);
+                    throw new InsufficientStockException(productId);
+                }
+                return new Taken(local, fetched);
+            } finally {
+                counter.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Retira do banco o necessário mais um bloco para os próximos pedidos ou,
+     * se não houver tanto, só o necessário
+     *
+     * @return unidades retiradas (0 se o banco não tem o necessário)
+     */
+    private int fetch(Long productId, int needed) {
+        if (reservationBlock > 0 && needed <= Integer.MAX_VALUE - reservationBlock
+                && decrement(productId, needed + reservationBlock)) {
+            return needed + reservationBlock;
+        }
+        return decrement(productId, needed) ? needed : 0;
+    }
+
+    private boolean decrement(Long productId, int quantity) {
+        return jdbcTemplate.update("UPDATE products SET stock_quantity = stock_quantity - ? "
+                + "WHERE id = ? AND stock_quantity >= ?", quantity, productId, quantity) > 0;
+    }
+
+    /**
+     * Devolve unidades ao contador do produto
+     */
+    private void giveBack(Long productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        while (true) {
+            StockCounter counter = counters.computeIfAbsent(productId, id -> new StockCounter(stripes));
+            counter.lock.lock();
+            try {
+                if (!counter.retired) {
+                    counter.spread(quantity);
+                    return;
+                }
+            } finally {
+                counter.lock.unlock();
+            }
+        }
+    }
+
+    private Integer withLocal(Long productId, Integer stored) {
+        if (stored == null) {
+            return null;
+        }
+        StockCounter counter = counters.get(productId);
+        return counter == null ? stored : stored + counter.available();
+    }
+
+    /**
+     * Unidades retiradas para um produto do pedido: do contador (já fora do
+     * banco) e do banco (pelo UPDATE da transação do pedido)
+     */
+    private record Taken(int fromCounter, int fromDatabase) {
+        int total() {
+            return fromCounter + fromDatabase;
+        }
+    }
+
+    /**
+     * Unidades de um produto retiradas do banco e ainda não vendidas
+     *
+     * As partes (stripes) são alteradas sem lock por compare-and-set; drain,
+     * spread e retired só são usados com o lock do contador.
+     */
+    private static class StockCounter {
+        private final AtomicInteger[] stripes;
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean retired;
+
+        StockCounter(int stripeCount) {
+            stripes = new AtomicInteger[Math.max(1, stripeCount)];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new AtomicInteger();
+            }
+        }
+
+        boolean tryTake(int quantity) {
+            int start = (int) (Thread.currentThread().threadId() % stripes.length);
+            for (int i = 0; i < stripes.length; i++) {
+                AtomicInteger stripe = stripes[(start + i) % stripes.length];
+                for (int current = stripe.get(); current >= quantity; current = stripe.get()) {
+                    if (stripe.compareAndSet(current, current - quantity)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        int drain() {
+            int total = 0;
+            for (AtomicInteger stripe : stripes) {
+                total += stripe.getAndSet(0);
+            }
+            return total;
+        }
+
+        void spread(int amount) {
+            int share = amount / stripes.length;
+            int remainder = amount % stripes.length;
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i].addAndGet(share + (i < remainder ? 1 : 0));
+            }
+        }
+
+        int available() {
+            int total = 0;
+            for (AtomicInteger stripe : stripes) {
+                total += stripe.get();
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Estoque insuficiente para um produto do pedido (409)
+     */
+    public static class InsufficientStockException extends ResponseStatusException {
+
+        private static final long serialVersionUID = 1L;
+
+        public InsufficientStockException(Long productId) {
+            super(HttpStatus.CONFLICT, "Estoque insuficiente para o produto " + productId);
+        }
+    }
+}
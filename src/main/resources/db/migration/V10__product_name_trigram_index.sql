@@ -0,0 +1,10 @@
+-- V10: índice de trigramas em products.name (GET /products/search)
+--
+-- Um índice B-tree não atende LIKE '%termo%' nem buscas aproximadas: sem este
+-- índice a busca percorre a tabela inteira. O GIN com gin_trgm_ops indexa os
+-- trigramas de cada nome e atende o operador <% (word_similarity) da busca,
+-- que tolera erros de digitação e encontra o termo em qualquer parte do nome.
+--
+-- Criado com CONCURRENTLY, como na V2; por isso este script roda fora de transação.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_name_trgm
+    ON products USING gin (name gin_trgm_ops);
@@ -0,0 +1,27 @@
+-- V11: coluna tsvector para a busca de clientes (GET /customers/search)
+--
+-- Configuração de texto "customer_search": a "simple" (sem stemming, que não
+-- faz sentido para nomes e endereços) com a unaccent antes, para "joao"
+-- encontrar "João". A unaccent, como a pg_trgm, é uma extensão "trusted".
+--
+-- search_vector é uma coluna gerada (STORED): o banco a recalcula em todo
+-- INSERT/UPDATE, sem código na aplicação. Pesos: nome (A) vale mais que
+-- endereço (B), que vale mais que telefone (C). O telefone entra em grupos de
+-- dígitos ("11 98765 4321") e com todos os dígitos juntos ("11987654321"),
+-- então a busca o encontra com ou sem pontuação.
+--
+-- ADD COLUMN de uma coluna gerada reescreve a tabela com lock exclusivo;
+-- o índice GIN vem na V12, com CONCURRENTLY.
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE TEXT SEARCH CONFIGURATION customer_search (COPY = simple);
+ALTER TEXT SEARCH CONFIGURATION customer_search
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, simple;
+
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('customer_search', coalesce(name, '')), 'A')
+    || setweight(to_tsvector('customer_search', coalesce(address, '')), 'B')
+    || setweight(to_tsvector('customer_search',
+           regexp_replace(coalesce(phone, ''), '[^0-9]+', ' ', 'g') || ' '
+           || regexp_replace(coalesce(phone, ''), '[^0-9]+', '', 'g')), 'C')
+) STORED;
@@ -0,0 +1,8 @@
+-- V12: índice GIN da busca de clientes (customers.search_vector, V11)
+--
+-- Atende o operador @@ da busca: o PostgreSQL lê só os clientes que têm os
+-- termos (inclusive por prefixo, "flor:*"), em vez de percorrer a tabela.
+--
+-- Criado com CONCURRENTLY, como na V2; por isso este script roda fora de transação.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_search
+    ON customers USING gin (search_vector);
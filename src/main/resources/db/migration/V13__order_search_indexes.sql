@@ -0,0 +1,27 @@
+-- V13: índices da busca de pedidos (GET /orders/search)
+--
+-- A busca ordena do pedido mais recente para o mais antigo (order_date, id) e
+-- pagina por cursor com (order_date, id) < (?, ?). Cada índice termina em
+-- (order_date, id): o PostgreSQL lê o índice de trás para frente a partir do
+-- cursor e para no LIMIT, sem ordenar. A coluna líder é o filtro de igualdade
+-- de cada combinação:
+--   sem filtro, período e/ou valor mínimo -> (order_date, id)
+--   status (com ou sem período)           -> (status, order_date, id)
+--   cliente (com ou sem status e período) -> (customer_id, order_date, id)
+-- O valor mínimo é conferido nas linhas lidas do índice escolhido.
+--
+-- (customer_id, order_date, id) substitui idx_orders_customer_id_order_date da
+-- V2 (mesmas colunas líderes, também atende a FK), removido depois que o novo
+-- índice está pronto.
+--
+-- Criados com CONCURRENTLY, como na V2; por isso este script roda fora de transação.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_order_date_id
+    ON orders (order_date, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_status_order_date_id
+    ON orders (status, order_date, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_customer_id_order_date_id
+    ON orders (customer_id, order_date, id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_orders_customer_id_order_date;
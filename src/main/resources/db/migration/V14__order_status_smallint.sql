@@ -0,0 +1,24 @@
+-- V14: status do pedido como SMALLINT (Order.OrderStatus.code)
+--
+-- VARCHAR(20) ocupa de 5 a 10 bytes por pedido ('PENDING', 'CANCELLED'),
+-- repetidos na tabela e em cada índice com o status (o INCLUDE de
+-- idx_orders_customer_id_id_totals). SMALLINT ocupa 2 bytes. A aplicação
+-- converte com OrderStatusConverter; os códigos são fixos:
+--   0 PENDING, 1 CONFIRMED, 2 SHIPPED, 3 DELIVERED, 4 CANCELLED
+--
+-- ALTER COLUMN TYPE reescreve a tabela e os seus índices com lock exclusivo.
+-- idx_orders_status_order_date_id (V13) é removido antes, para não ser
+-- reconstruído à toa: a V15 o substitui por índices parciais.
+DROP INDEX IF EXISTS idx_orders_status_order_date_id;
+
+ALTER TABLE orders DROP CONSTRAINT IF EXISTS orders_status_check;
+
+ALTER TABLE orders ALTER COLUMN status TYPE SMALLINT USING CASE status
+    WHEN 'PENDING' THEN 0
+    WHEN 'CONFIRMED' THEN 1
+    WHEN 'SHIPPED' THEN 2
+    WHEN 'DELIVERED' THEN 3
+    WHEN 'CANCELLED' THEN 4
+END;
+
+ALTER TABLE orders ADD CONSTRAINT orders_status_check CHECK (status BETWEEN 0 AND 4);
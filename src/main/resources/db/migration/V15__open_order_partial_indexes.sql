@@ -0,0 +1,24 @@
+-- V15: índice parcial dos pedidos em aberto e BRIN de order_date
+--
+-- Quase todo pedido termina entregue ou cancelado; as consultas do dia a dia
+-- (GET /orders/search?status=PENDING...) procuram os poucos ainda em aberto
+-- (0 PENDING, 1 CONFIRMED, 2 SHIPPED). O índice parcial só tem esses
+-- pedidos: continua pequeno enquanto o histórico cresce, e um pedido sai dele
+-- quando é entregue ou cancelado. Termina em (order_date, id), como os
+-- índices da V13; a busca por um ou mais status em aberto o lê de trás para
+-- frente e confere o status em cada linha lida. A busca por um status final
+-- usa idx_orders_order_date_id (a maioria dos pedidos atende ao filtro) ou o
+-- índice do cliente.
+--
+-- order_date só cresce com a tabela (os pedidos são gravados com a data
+-- atual), então as linhas de um período ficam em blocos vizinhos. O BRIN
+-- guarda só a menor e a maior data de cada faixa de blocos: ocupa poucos KB
+-- e atende consultas de períodos longos com o intervalo de datas escrito na
+-- condição (ex: relatórios em SQL).
+--
+-- Criados com CONCURRENTLY, como na V2; por isso este script roda fora de transação.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_open_order_date_id
+    ON orders (order_date, id) WHERE status IN (0, 1, 2);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_order_date_brin
+    ON orders USING brin (order_date);
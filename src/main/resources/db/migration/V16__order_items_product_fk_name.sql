@@ -0,0 +1,24 @@
+-- V16: nome fixo da chave estrangeira dos itens para produtos
+--
+-- A criação de pedidos identifica qual referência não existe pelo nome da
+-- constraint violada (fk_orders_customer ou fk_order_items_product). A V8 já
+-- recriou as chaves de orders.customer_id e order_items.order_id com nomes
+-- fixos; a de order_items.product_id ficou com o nome gerado pelo Hibernate
+-- nos bancos adotados do ddl-auto=update, então ela é localizada pela coluna,
+-- como na V8, e renomeada. RENAME CONSTRAINT não revalida a chave.
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.contype = 'f'
+          AND c.conrelid = 'order_items'::regclass
+          AND a.attname = 'product_id'
+          AND c.conname <> 'fk_order_items_product'
+    LOOP
+        EXECUTE format('ALTER TABLE order_items RENAME CONSTRAINT %I TO fk_order_items_product', fk.conname);
+    END LOOP;
+END $$;
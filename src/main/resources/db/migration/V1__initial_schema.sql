@@ -0,0 +1,65 @@
+-- V1: schema inicial (produtos, clientes, pedidos e itens de pedido)
+--
+-- Bancos novos: cria tudo do zero.
+-- Bancos criados antes do Flyway (ddl-auto=update do Hibernate): os comandos
+-- são idempotentes (IF NOT EXISTS), então este script apenas completa o que
+-- faltar. Nesses bancos o Flyway registra a versão 0 como baseline e executa
+-- este script normalmente (spring.flyway.baseline-version=0).
+--
+-- IDs: sequences com INCREMENT BY 50, igual ao allocationSize das entidades
+-- (otimizador "pooled": cada nextval é o FIM de um bloco de 50 IDs).
+
+CREATE SEQUENCE IF NOT EXISTS products_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS customers_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS products (
+    id             BIGINT       NOT NULL,
+    name           VARCHAR(100) NOT NULL,
+    price_in_cents INTEGER      NOT NULL,
+    CONSTRAINT products_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS customers (
+    id      BIGINT       NOT NULL,
+    name    VARCHAR(100) NOT NULL,
+    email   VARCHAR(100) NOT NULL,
+    phone   VARCHAR(20),
+    address VARCHAR(200),
+    CONSTRAINT customers_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_customers_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id          BIGINT       NOT NULL,
+    customer_id BIGINT       NOT NULL,
+    order_date  TIMESTAMP(6) NOT NULL,
+    status      VARCHAR(20)  NOT NULL,
+    CONSTRAINT orders_pkey PRIMARY KEY (id),
+    CONSTRAINT orders_status_check CHECK (status IN ('PENDING', 'CONFIRMED', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    CONSTRAINT fk_orders_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id         BIGINT  NOT NULL,
+    order_id   BIGINT  NOT NULL,
+    product_id BIGINT  NOT NULL,
+    quantity   INTEGER NOT NULL,
+    CONSTRAINT order_items_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+-- Bancos muito antigos usavam IDENTITY na coluna id: o ID passa a vir das sequences
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE customers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE order_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- Posiciona cada sequence depois do maior ID já usado (por linhas existentes
+-- ou por blocos já reservados): o próximo nextval reserva um bloco novo
+SELECT setval('products_seq', GREATEST((SELECT last_value FROM products_seq), (SELECT COALESCE(MAX(id), 0) FROM products)) + 50, false);
+SELECT setval('customers_seq', GREATEST((SELECT last_value FROM customers_seq), (SELECT COALESCE(MAX(id), 0) FROM customers)) + 50, false);
+SELECT setval('orders_seq', GREATEST((SELECT last_value FROM orders_seq), (SELECT COALESCE(MAX(id), 0) FROM orders)) + 50, false);
+SELECT setval('order_items_seq', GREATEST((SELECT last_value FROM order_items_seq), (SELECT COALESCE(MAX(id), 0) FROM order_items)) + 50, false);
@@ -0,0 +1,27 @@
+-- V2: índices das chaves estrangeiras e das consultas de pedidos
+--
+-- O PostgreSQL não cria índices para chaves estrangeiras. Sem eles, buscas por
+-- cliente/pedido/produto e a verificação da FK ao deletar um pedido, cliente
+-- ou produto percorrem a tabela filha inteira (sequential scan).
+--
+-- Os índices são criados com CONCURRENTLY para não bloquear escritas em
+-- tabelas grandes; por isso este script roda fora de transação.
+
+-- orders.customer_id: pedidos de um cliente por período (a coluna líder também atende a FK)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_customer_id_order_date
+    ON orders (customer_id, order_date);
+
+-- Listagem de pedidos de um cliente por cursor (GET /orders/customer/{id}?after=):
+-- WHERE customer_id = ? AND id > ? ORDER BY id, com as colunas do resumo no índice
+-- (index-only scan, sem visitar a tabela)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_customer_id_id
+    ON orders (customer_id, id) INCLUDE (order_date, status);
+
+-- order_items.order_id: itens de um pedido; inclui produto e quantidade para o
+-- total dos resumos de pedido sem visitar a tabela
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_items_order_id
+    ON order_items (order_id) INCLUDE (product_id, quantity);
+
+-- order_items.product_id: linhas de pedido de um produto por cursor (GET /products/{id}/order-items)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_items_product_id
+    ON order_items (product_id, id);
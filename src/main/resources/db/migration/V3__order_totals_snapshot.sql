@@ -0,0 +1,14 @@
+-- V3: preço unitário congelado nos itens e totais gravados nos pedidos
+--
+-- order_items.unit_price_in_cents: preço do produto no momento da criação do
+-- pedido; alterar o preço do produto não muda mais pedidos já feitos.
+-- orders.item_count / orders.total_amount_in_cents: mantidos na gravação do
+-- pedido, para que listagens e resumos não precisem somar itens nem ler products.
+--
+-- As colunas são nulas para não reescrever as tabelas (ADD COLUMN sem DEFAULT é
+-- só uma alteração de catálogo). As linhas já existentes são preenchidas em
+-- lotes pelo OrderTotalsBackfillService, na inicialização da aplicação.
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS unit_price_in_cents INTEGER;
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS item_count INTEGER;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS total_amount_in_cents BIGINT;
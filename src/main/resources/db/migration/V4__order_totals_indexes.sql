@@ -0,0 +1,21 @@
+-- V4: índices para os totais gravados nos pedidos (V3)
+--
+-- Criados com CONCURRENTLY, como na V2; por isso este script roda fora de transação.
+
+-- Listagem de pedidos de um cliente por cursor: o resumo agora lê item_count e
+-- total_amount_in_cents direto de orders, então as colunas entram no índice
+-- (index-only scan). Substitui idx_orders_customer_id_id, removido depois que o
+-- novo índice está pronto.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_customer_id_id_totals
+    ON orders (customer_id, id) INCLUDE (order_date, status, item_count, total_amount_in_cents);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_orders_customer_id_id;
+
+-- Índices parciais das linhas ainda sem preenchimento: o backfill encontra cada
+-- lote sem percorrer a tabela. Linhas novas já são gravadas preenchidas, então
+-- depois do backfill estes índices ficam vazios
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_items_unit_price_missing
+    ON order_items (id) WHERE unit_price_in_cents IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_totals_missing
+    ON orders (id) WHERE total_amount_in_cents IS NULL;
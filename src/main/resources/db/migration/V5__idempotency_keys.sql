@@ -0,0 +1,17 @@
+-- V5: chaves de idempotência de POST /orders e POST /customers
+--
+-- Uma linha por (scope, idempotency_key) com o hash da requisição e a resposta
+-- gravada, inserida na mesma transação da escrita: ou o pedido/cliente e a
+-- chave são gravados juntos, ou nenhum dos dois.
+-- As linhas expiram após app.idempotency.ttl e são removidas em lotes pelo
+-- IdempotencyService (índice em created_at).
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope VARCHAR(20) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash BYTEA NOT NULL,
+    response_body TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT idempotency_keys_pkey PRIMARY KEY (scope, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,10 @@
+-- V6: coluna de versão para o controle de concorrência otimista (@Version)
+--
+-- Cada UPDATE de produto, cliente ou pedido incrementa a versão e só é
+-- aplicado se a versão lida ainda for a atual; a versão é exposta como ETag
+-- e comparada com o header If-Match.
+-- ADD COLUMN com DEFAULT constante só altera o catálogo (PostgreSQL 11+):
+-- as linhas existentes não são reescritas e ficam com versão 0.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- V7: estoque dos produtos
+--
+-- stock_quantity é o estoque ainda não reservado. Nulo = produto sem controle
+-- de estoque (os produtos existentes continuam vendendo sem limite até
+-- receberem estoque por POST /products/{id}/stock).
+-- As reservas decrementam a coluna com UPDATE condicional
+-- (WHERE stock_quantity >= ?); a CHECK garante que ela nunca fica negativa.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS stock_quantity INTEGER;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'products_stock_quantity_check') THEN
+        ALTER TABLE products ADD CONSTRAINT products_stock_quantity_check CHECK (stock_quantity >= 0);
+    END IF;
+END $$;
@@ -0,0 +1,33 @@
+-- V8: exclusões em cascata no banco
+--
+-- Excluir um cliente exclui os seus pedidos e excluir um pedido exclui os seus
+-- itens (ON DELETE CASCADE): um único DELETE, sem o Hibernate carregar o grafo
+-- e excluir linha a linha. Os índices das chaves estrangeiras (V2) atendem a
+-- busca das linhas filhas.
+-- A chave dos itens para produtos continua sem cascata: um produto com
+-- histórico de vendas não pode ser excluído (o DELETE falha e a API responde 409).
+--
+-- Bancos adotados do ddl-auto=update têm as chaves com nomes gerados pelo
+-- Hibernate (fk...), então elas são localizadas pela coluna, não pelo nome.
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN
+        SELECT c.conrelid::regclass AS table_name, c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.contype = 'f'
+          AND ((c.conrelid = 'orders'::regclass AND a.attname = 'customer_id')
+            OR (c.conrelid = 'order_items'::regclass AND a.attname = 'order_id'))
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END $$;
+
+-- A troca roda em uma transação: as tabelas nunca ficam sem a chave
+ALTER TABLE orders ADD CONSTRAINT fk_orders_customer
+    FOREIGN KEY (customer_id) REFERENCES customers (id) ON DELETE CASCADE;
+
+ALTER TABLE order_items ADD CONSTRAINT fk_order_items_order
+    FOREIGN KEY (order_id) REFERENCES orders (id) ON DELETE CASCADE;
@@ -0,0 +1,8 @@
+-- V9: extensão pg_trgm (busca de produtos por nome)
+--
+-- Fornece os operadores de similaridade por trigramas (%, <%) e a classe de
+-- operadores gin_trgm_ops usada pelo índice da V10. Fica em um script próprio
+-- porque a V10 roda fora de transação (CONCURRENTLY) e o Flyway não mistura
+-- os dois tipos de comando no mesmo script.
+-- A pg_trgm é uma extensão "trusted": o dono do banco pode criá-la sem superusuário.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
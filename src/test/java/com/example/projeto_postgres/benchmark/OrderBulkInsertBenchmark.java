@@ -0,0 +1,112 @@
+package com.example.projeto_postgres.benchmark;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.model.OrderItem;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import com.example.projeto_postgres.support.TestFixtures;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Benchmark da carga em massa de pedidos: INSERTs individuais x lotes JDBC
+ *
+ * Grava os mesmos pedidos duas vezes, com o lote da sessão em 1 (um comando
+ * por linha, o comportamento que IDENTITY impunha) e com o lote configurado
+ * em hibernate.jdbc.batch_size.
+ *
+ * Executar com: mvn test -Dbenchmark=true -Dtest=OrderBulkInsertBenchmark
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Import({JdbcRoundTripCounter.class, TestFixtures.class})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderBulkInsertBenchmark {
+
+    private static final int ORDERS = 2000;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private Customer customer;
+    private List<Product> products;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Benchmark", "bench");
+        products = fixtures.products(ITEMS_PER_ORDER, "Produto benchmark", i -> 100 + i);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void bulkInsertOrders() {
+        // Aquecimento
+        insertOrders(100, null);
+        insertOrders(100, 1);
+
+        System.out.println();
+        System.out.printf("%-22s %10s %12s %12s%n", "modo", "linhas", "comandos", "tempo (ms)");
+        report("sem lote (1 por linha)", 1);
+        report("em lote (batch_size)", null);
+    }
+
+    private void report(String mode, Integer batchSize) {
+        counter.reset();
+        long start = System.nanoTime();
+        insertOrders(ORDERS, batchSize);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("%-22s %10d %12d %12.1f%n", mode, ORDERS * (1 + ITEMS_PER_ORDER),
+                counter.statements(), millis);
+    }
+
+    /**
+     * Grava os pedidos em uma transação; batchSize = null usa o valor configurado
+     */
+    private void insertOrders(int count, Integer batchSize) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            if (batchSize != null) {
+                session.setJdbcBatchSize(batchSize);
+            }
+            Customer customerRef = entityManager.getReference(Customer.class, customer.getId());
+            for (int i = 0; i < count; i++) {
+                Order order = new Order();
+                order.setCustomer(customerRef);
+                for (Product product : products) {
+                    OrderItem item = new OrderItem();
+                    item.setProduct(entityManager.getReference(Product.class, product.getId()));
+                    item.setQuantity(1);
+                    item.setUnitPriceInCents(product.getPriceInCents());
+                    order.addItem(item);
+                }
+                entityManager.persist(order);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.projeto_postgres.benchmark;
+
+import com.example.projeto_postgres.dto.CreateOrderDTO;
+import com.example.projeto_postgres.dto.OrderItemDTO;
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.service.OrderService;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark da criação de pedidos: idas ao banco e latência por tamanho de pedido
+ *
+ * Executar com: mvn test -Dbenchmark=true -Dtest=OrderCreationBenchmark
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Import({JdbcRoundTripCounter.class, TestFixtures.class})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderCreationBenchmark {
+
+    private static final int[] ORDER_SIZES = {1, 10, 100, 1000};
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private Customer customer;
+    private List<Product> products;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Benchmark", "bench");
+        products = fixtures.products(1000, "Produto benchmark", i -> 100 + i);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void createOrder() {
+        System.out.println();
+        System.out.printf("%-8s %14s %12s %12s %12s%n", "itens", "idas ao banco", "média (ms)", "p50 (ms)", "máx (ms)");
+        for (int size : ORDER_SIZES) {
+            CreateOrderDTO order = orderOf(size);
+            for (int i = 0; i < WARMUP; i++) {
+                orderService.createOrder(order);
+            }
+
+            long[] nanos = new long[ITERATIONS];
+            long roundTrips = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                counter.reset();
+                long start = System.nanoTime();
+                orderService.createOrder(order);
+                nanos[i] = System.nanoTime() - start;
+                roundTrips = counter.roundTrips();
+            }
+            Arrays.sort(nanos);
+            double avg = Arrays.stream(nanos).average().orElse(0) / 1_000_000.0;
+            System.out.printf("%-8d %14d %12.2f %12.2f %12.2f%n", size, roundTrips, avg,
+                    nanos[ITERATIONS / 2] / 1_000_000.0, nanos[ITERATIONS - 1] / 1_000_000.0);
+        }
+    }
+
+    private CreateOrderDTO orderOf(int size) {
+        CreateOrderDTO order = new CreateOrderDTO();
+        order.setCustomerId(customer.getId());
+        for (int i = 0; i < size; i++) {
+            OrderItemDTO item = new OrderItemDTO();
+            item.setProductId(products.get(i).getId());
+            item.setQuantity(1 + i % 3);
+            order.getItems().add(item);
+        }
+        return order;
+    }
+}
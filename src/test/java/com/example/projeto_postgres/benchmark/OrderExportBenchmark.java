@@ -0,0 +1,156 @@
+package com.example.projeto_postgres.benchmark;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.service.OrderExportService;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark da exportação NDJSON: heap usado x quantidade de pedidos exportados
+ *
+ * Os pedidos são gerados direto no banco (generate_series, 2 itens por pedido)
+ * com datas em 1990, e a exportação é filtrada por esse período. A saída é
+ * descartada; uma thread amostra o pico de heap usado durante a exportação,
+ * que deve ficar estável enquanto a quantidade de pedidos cresce.
+ *
+ * Executar com: mvn test -Dbenchmark=true -Dtest=OrderExportBenchmark
+ * Tamanhos: -Dexport.sizes=10000,100000,1000000 (padrão)
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Import(TestFixtures.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderExportBenchmark {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(1990, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusYears(1);
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+    private Product product;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Benchmark", "bench");
+        product = fixtures.product("Produto benchmark", 1000);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        deleteOrders();
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void exportOrders() throws InterruptedException {
+        int[] sizes = Arrays.stream(System.getProperty("export.sizes", "10000,100000,1000000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        System.out.println();
+        System.out.printf("%-10s %12s %12s %16s%n", "pedidos", "MB escritos", "tempo (ms)", "pico heap (MB)");
+        for (int size : sizes) {
+            deleteOrders();
+            insertOrders(size);
+            report(size);
+        }
+    }
+
+    private void report(int size) throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        AtomicLong peak = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+        long exported = orderExportService.export(FROM, TO, null, out);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        running.set(false);
+        sampler.join();
+        if (exported != size) {
+            throw new IllegalStateException("Exportados " + exported + " de " + size + " pedidos");
+        }
+        System.out.printf("%-10d %12.1f %12.1f %16.1f%n", size, out.bytes / 1_048_576.0, millis,
+                peak.get() / 1_048_576.0);
+    }
+
+    private void insertOrders(int count) {
+        jdbcTemplate.update("""
+                INSERT INTO orders (id, customer_id, order_date, status, item_count, total_amount_in_cents)
+                SELECT nextval('orders_seq'), ?, ?::timestamp + (n % 365) * interval '1 day', 3, 2, 3 * ?
+                FROM generate_series(1, ?) n
+                """, customer.getId(), FROM, product.getPriceInCents(), count);
+        jdbcTemplate.update("""
+                INSERT INTO order_items (id, order_id, product_id, quantity, unit_price_in_cents)
+                SELECT nextval('order_items_seq'), o.id, ?, k, ?
+                FROM orders o CROSS JOIN generate_series(1, 2) k
+                WHERE o.customer_id = ?
+                """, product.getId(), product.getPriceInCents(), customer.getId());
+        jdbcTemplate.execute("ANALYZE orders");
+        jdbcTemplate.execute("ANALYZE order_items");
+    }
+
+    /**
+     * Remove os pedidos gerados
+     *
+     * Cada pedido apagado dispara a verificação da chave estrangeira em
+     * order_items; o VACUUM descarta antes as páginas dos itens já removidos,
+     * senão essa verificação relê milhões de linhas mortas por pedido
+     */
+    private void deleteOrders() {
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (SELECT id FROM orders WHERE customer_id = ?)", customer.getId());
+        jdbcTemplate.execute("VACUUM order_items");
+        jdbcTemplate.update("DELETE FROM orders WHERE customer_id = ?", customer.getId());
+    }
+
+    /**
+     * Descarta a saída, contando apenas os bytes escritos
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.projeto_postgres.benchmark;
+
+import com.example.projeto_postgres.service.ProductNameIndex;
+import com.example.projeto_postgres.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark do autocomplete em memória com 1 milhão de produtos
+ *
+ * Mostra o tamanho e o tempo de reconstrução do índice (as mesmas métricas
+ * de /actuator/metrics) e compara o tempo de cada tecla digitada no índice
+ * com a busca por trigramas no banco (GET /products/search).
+ *
+ * Executar com: mvn test -Dbenchmark=true -Dtest=ProductAutocompleteBenchmark
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductAutocompleteBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int LOOKUPS = 100_000;
+    private static final int SEARCHES = 5;
+    private static final List<String> KEYSTROKES = List.of("c", "ca", "cad", "cadeira", "cadeira g", "cadeira gamer p");
+
+    @Autowired
+    private ProductNameIndex productNameIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long lastIdBefore;
+
+    @BeforeEach
+    void createProducts() {
+        lastIdBefore = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM products", Long.class);
+        jdbcTemplate.update("INSERT INTO products (id, name, price_in_cents, version) "
+                + "SELECT nextval('products_seq'), "
+                + "(ARRAY['Cadeira', 'Mesa', 'Notebook', 'Monitor', 'Teclado', 'Mouse', 'Fone', 'Caixa de som', "
+                + "'Webcam', 'Luminária', 'Estante', 'Sofá', 'Tapete', 'Cabo', 'Carregador', 'Mochila'])[1 + i % 16] || ' ' "
+                + "|| (ARRAY['gamer', 'bluetooth', 'sem fio', 'ergonômica', 'portátil', 'premium', 'compacto', "
+                + "'27 polegadas', 'USB-C', 'infantil', 'profissional', 'slim'])[1 + (i / 16) % 12] || ' ' "
+                + "|| translate(substr(md5(i::text), 1, 7), '0123456789', 'ghijklmnop') || ' ' "
+                + "|| (ARRAY['preto', 'branco', 'azul', 'vermelho', 'cinza', 'verde', 'rosa'])[1 + (i / 192) % 7], "
+                + "1000 + i % 500000, 0 FROM generate_series(1, ?) AS i", PRODUCTS);
+        jdbcTemplate.execute("ANALYZE products");
+    }
+
+    @AfterEach
+    void removeProducts() {
+        jdbcTemplate.update("DELETE FROM products WHERE id > ?", lastIdBefore);
+        jdbcTemplate.execute("ANALYZE products");
+        productNameIndex.rebuild();
+    }
+
+    @Test
+    void suggestWhileTyping() {
+        productNameIndex.rebuild();
+
+        System.out.println();
+        System.out.printf("produtos: %.0f, entradas: %.0f, memória: %.1f MB, reconstrução: %.0f ms%n",
+                meterRegistry.get("autocomplete.index.products").gauge().value(),
+                meterRegistry.get("autocomplete.index.entries").gauge().value(),
+                meterRegistry.get("autocomplete.index.memory").gauge().value() / (1024 * 1024),
+                meterRegistry.get("autocomplete.index.rebuild").timer().max(TimeUnit.MILLISECONDS));
+
+        System.out.println();
+        System.out.printf("%-18s %-18s %12s %14s%n", "estratégia", "digitado", "sugestões", "µs por tecla");
+        for (String typed : KEYSTROKES) {
+            double indexMicros = run("índice em memória", typed, LOOKUPS, prefix -> productNameIndex.suggest(prefix, 10));
+            run("busca no banco", typed, SEARCHES, prefix -> productService.search(prefix, null, null, 10));
+            assertThat(indexMicros).isLessThan(1000);
+        }
+    }
+
+    private double run(String name, String typed, int times, Function<String, List<?>> suggest) {
+        int results = suggest.apply(typed).size();
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            suggest.apply(typed);
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / times;
+        System.out.printf("%-18s %-18s %12d %14.1f%n", name, typed, results, micros);
+        return micros;
+    }
+}
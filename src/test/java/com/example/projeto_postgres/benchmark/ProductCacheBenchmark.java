@@ -0,0 +1,119 @@
+package com.example.projeto_postgres.benchmark;
+
+import com.example.projeto_postgres.config.CacheConfig;
+import com.example.projeto_postgres.dto.CreateOrderDTO;
+import com.example.projeto_postgres.dto.OrderItemDTO;
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.service.OrderService;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark da criação de pedidos com e sem o cache de produtos
+ *
+ * "sem cache" limpa o cache antes de cada pedido, então os produtos sempre
+ * vêm do banco; "com cache" cria os pedidos com o cache já aquecido.
+ *
+ * Executar com: mvn test -Dbenchmark=true -Dtest=ProductCacheBenchmark
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Import({JdbcRoundTripCounter.class, TestFixtures.class})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductCacheBenchmark {
+
+    private static final int[] ORDER_SIZES = {1, 10, 100};
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private Customer customer;
+    private List<Product> products;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Benchmark", "bench");
+        products = fixtures.products(100, "Produto benchmark", i -> 100 + i);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+        cacheManager.getCache(CacheConfig.PRODUCTS).clear();
+    }
+
+    @Test
+    void createOrder() {
+        System.out.println();
+        System.out.printf("%-8s %-10s %14s %12s %12s%n", "itens", "modo", "idas ao banco", "média (ms)", "p50 (ms)");
+        for (int size : ORDER_SIZES) {
+            CreateOrderDTO order = orderOf(size);
+            report(order, size, "sem cache", true);
+            report(order, size, "com cache", false);
+        }
+    }
+
+    private void report(CreateOrderDTO order, int size, String mode, boolean clearCache) {
+        for (int i = 0; i < WARMUP; i++) {
+            create(order, clearCache);
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        long roundTrips = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (clearCache) {
+                cacheManager.getCache(CacheConfig.PRODUCTS).clear();
+            }
+            counter.reset();
+            long start = System.nanoTime();
+            orderService.createOrder(order);
+            nanos[i] = System.nanoTime() - start;
+            roundTrips = counter.roundTrips();
+        }
+        Arrays.sort(nanos);
+        double avg = Arrays.stream(nanos).average().orElse(0) / 1_000_000.0;
+        System.out.printf("%-8d %-10s %14d %12.3f %12.3f%n", size, mode, roundTrips, avg,
+                nanos[ITERATIONS / 2] / 1_000_000.0);
+    }
+
+    private void create(CreateOrderDTO order, boolean clearCache) {
+        if (clearCache) {
+            cacheManager.getCache(CacheConfig.PRODUCTS).clear();
+        }
+        orderService.createOrder(order);
+    }
+
+    private CreateOrderDTO orderOf(int size) {
+        CreateOrderDTO order = new CreateOrderDTO();
+        order.setCustomerId(customer.getId());
+        for (int i = 0; i < size; i++) {
+            OrderItemDTO item = new OrderItemDTO();
+            item.setProductId(products.get(i).getId());
+            item.setQuantity(1 + i % 3);
+            order.getItems().add(item);
+        }
+        return order;
+    }
+}
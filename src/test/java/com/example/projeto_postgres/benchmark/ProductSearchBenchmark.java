@@ -0,0 +1,105 @@
+package com.example.projeto_postgres.benchmark;
+
+import com.example.projeto_postgres.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark da busca de produtos por nome (GET /products/search) com 1 milhão de produtos
+ *
+ * Mostra o plano da consulta (Bitmap Index Scan em idx_products_name_trgm) e
+ * compara o tempo da busca pelo índice com a mesma consulta percorrendo a
+ * tabela (enable_bitmapscan e enable_indexscan desligados na transação).
+ * Cada nome tem categoria, adjetivo e cor comuns e um modelo quase único: a
+ * busca por um modelo (com e sem erro de digitação) é seletiva, a busca por
+ * palavras comuns encontra dezenas de milhares de produtos.
+ *
+ * Executar com: mvn test -Dbenchmark=true -Dtest=ProductSearchBenchmark
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int SEARCHES = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long lastIdBefore;
+
+    @BeforeEach
+    void createProducts() {
+        lastIdBefore = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM products", Long.class);
+        jdbcTemplate.update("INSERT INTO products (id, name, price_in_cents, version) "
+                + "SELECT nextval('products_seq'), "
+                + "(ARRAY['Cadeira', 'Mesa', 'Notebook', 'Monitor', 'Teclado', 'Mouse', 'Fone', 'Caixa de som', "
+                + "'Webcam', 'Luminária', 'Estante', 'Sofá', 'Tapete', 'Cabo', 'Carregador', 'Mochila'])[1 + i % 16] || ' ' "
+                + "|| (ARRAY['gamer', 'bluetooth', 'sem fio', 'ergonômica', 'portátil', 'premium', 'compacto', "
+                + "'27 polegadas', 'USB-C', 'infantil', 'profissional', 'slim'])[1 + (i / 16) % 12] || ' ' "
+                + "|| translate(substr(md5(i::text), 1, 7), '0123456789', 'ghijklmnop') || ' ' "
+                + "|| (ARRAY['preto', 'branco', 'azul', 'vermelho', 'cinza', 'verde', 'rosa'])[1 + (i / 192) % 7], "
+                + "1000 + i % 500000, 0 FROM generate_series(1, ?) AS i", PRODUCTS);
+        jdbcTemplate.execute("ANALYZE products");
+    }
+
+    @AfterEach
+    void removeProducts() {
+        jdbcTemplate.update("DELETE FROM products WHERE id > ?", lastIdBefore);
+        jdbcTemplate.execute("ANALYZE products");
+    }
+
+    @Test
+    void searchByName() {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT id, name, price_in_cents, version "
+                + "FROM products WHERE ? <% name AND price_in_cents BETWEEN ? AND ? "
+                + "ORDER BY word_similarity(?, name) DESC, id LIMIT ?", String.class, "cadeira gamer", 0, 100000,
+                "cadeira gamer", 20));
+        System.out.println();
+        System.out.println(plan);
+        assertThat(plan).contains("idx_products_name_trgm");
+
+        // Modelo de um produto do meio da tabela, exato e com uma letra a menos
+        String model = jdbcTemplate.queryForObject("SELECT split_part(name, ' ', -2) FROM products WHERE id > ? "
+                + "ORDER BY id OFFSET ? LIMIT 1", String.class, lastIdBefore, PRODUCTS / 2);
+        List<String> terms = List.of(model, model.substring(0, 3) + model.substring(4), "notbook", "cadeira gamer");
+
+        System.out.println();
+        System.out.printf("%-22s %-16s %12s %14s%n", "estratégia", "termo", "resultados", "ms por busca");
+        for (String term : terms) {
+            run("índice de trigramas", term, () -> productService.search(term, null, null, 20));
+            run("varredura da tabela", term, () -> transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+                jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+                return productService.search(term, null, null, 20);
+            }));
+        }
+    }
+
+    private void run(String name, String term, Supplier<List<?>> search) {
+        int results = search.get().size();
+        long start = System.nanoTime();
+        for (int i = 0; i < SEARCHES; i++) {
+            search.get();
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / SEARCHES;
+        System.out.printf("%-22s %-16s %12d %14.1f%n", name, term, results, millis);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.projeto_postgres.benchmark;
+
+import com.example.projeto_postgres.dto.OrderItemDTO;
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.service.StockService;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark da reserva de estoque de um único produto disputado por vários pedidos simultâneos
+ *
+ * Compara o lock da linha do produto até o commit de cada pedido
+ * (SELECT ... FOR UPDATE + UPDATE) com os contadores do StockService. Os dois
+ * gravam o pedido com os mesmos INSERTs; o estoque é menor que a demanda para
+ * conferir que nenhum dos dois vende mais do que tem.
+ *
+ * Executar com: mvn test -Dbenchmark=true -Dtest=StockReservationBenchmark
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Import(TestFixtures.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StockReservationBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS = 4000;
+    private static final int STOCK = 3000;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Customer customer;
+    private List<Product> products;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Benchmark estoque", "bench-stock");
+        products = new ArrayList<>();
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        stockService.reconcile();
+        fixtures.cleanUp();
+        products.forEach(product -> stockService.forget(product.getId()));
+    }
+
+    @Test
+    void reserveHotProduct() throws Exception {
+        System.out.println();
+        System.out.printf("%-22s %10s %10s %12s %14s%n", "estratégia", "criados", "recusados", "tempo (ms)", "pedidos/s");
+
+        run("lock da linha", productId -> transactionTemplate.execute(status -> {
+            Integer stock = jdbcTemplate.queryForObject(
+                    "SELECT stock_quantity FROM products WHERE id = ? FOR UPDATE", Integer.class, productId);
+            if (stock == null || stock < 1) {
+                return false;
+            }
+            jdbcTemplate.update("UPDATE products SET stock_quantity = stock_quantity - 1 WHERE id = ?", productId);
+            insertOrder(productId);
+            return true;
+        }));
+
+        run("contadores em memória", productId -> transactionTemplate.execute(status -> {
+            try {
+                stockService.reserve(List.of(item(productId)));
+            } catch (StockService.InsufficientStockException e) {
+                return false;
+            }
+            insertOrder(productId);
+            return true;
+        }));
+    }
+
+    private void run(String name, Function<Long, Boolean> placeOrder) throws Exception {
+        Product product = fixtures.product("Produto disputado " + name, 1000, STOCK);
+        products.add(product);
+        Long productId = product.getId();
+
+        List<Callable<Integer>> calls = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            calls.add(() -> {
+                int created = 0;
+                for (int i = 0; i < ORDERS / THREADS; i++) {
+                    if (placeOrder.apply(productId)) {
+                        created++;
+                    }
+                }
+                return created;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        int created = 0;
+        long start = System.nanoTime();
+        try {
+            for (Future<Integer> result : executor.invokeAll(calls)) {
+                created += result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        stockService.reconcile();
+        assertThat(created).isEqualTo(STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(quantity) FROM order_items WHERE product_id = ?",
+                Long.class, productId)).isEqualTo(STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?",
+                Integer.class, productId)).isZero();
+
+        System.out.printf("%-22s %10d %10d %12.0f %14.0f%n", name, created, ORDERS - created, millis,
+                ORDERS * 1000 / millis);
+    }
+
+    private void insertOrder(Long productId) {
+        Long orderId = jdbcTemplate.queryForObject("INSERT INTO orders (id, customer_id, order_date, status, item_count, "
+                        + "total_amount_in_cents) VALUES (nextval('orders_seq'), ?, now(), 0, 1, 1000) RETURNING id",
+                Long.class, customer.getId());
+        jdbcTemplate.update("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price_in_cents) "
+                + "VALUES (nextval('order_items_seq'), ?, ?, 1, 1000)", orderId, productId);
+    }
+
+    private static OrderItemDTO item(Long productId) {
+        OrderItemDTO item = new OrderItemDTO();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        return item;
+    }
+}
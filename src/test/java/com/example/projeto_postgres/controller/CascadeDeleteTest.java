@@ -0,0 +1,138 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exclusões em cascata no banco: um DELETE por cliente/pedido, exclusão em
+ * blocos para clientes grandes e histórico de vendas preservado
+ */
+@SpringBootTest(properties = "app.deletion.chunk-size=5")
+@AutoConfigureMockMvc
+@Import({JdbcRoundTripCounter.class, TestFixtures.class})
+class CascadeDeleteTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private Customer customer;
+    private Product product;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Cliente exclusão", "delete");
+        product = fixtures.product("Produto exclusão", 500);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void deletingAnOrderRemovesItsItemsInOneStatement() throws Exception {
+        Long orderId = insertOrders(1);
+
+        counter.reset();
+        mockMvc.perform(delete("/orders/{id}", orderId)).andExpect(status().isNoContent());
+        assertThat(counter.statements()).isEqualTo(1);
+        assertThat(itemsOfProduct()).isZero();
+
+        mockMvc.perform(delete("/orders/{id}", orderId)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deletingACustomerRemovesOrdersAndItems() throws Exception {
+        insertOrders(5);
+
+        // Uma consulta para saber se o cliente é grande e um DELETE com cascata no banco
+        counter.reset();
+        mockMvc.perform(delete("/customers/{id}", customer.getId())).andExpect(status().isNoContent());
+        assertThat(counter.statements()).isEqualTo(2);
+        assertThat(ordersOfCustomer()).isZero();
+        assertThat(itemsOfProduct()).isZero();
+
+        mockMvc.perform(delete("/customers/{id}", customer.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void largeCustomersAreDeletedInTheBackground() throws Exception {
+        insertOrders(23);
+
+        mockMvc.perform(delete("/customers/{id}", customer.getId())).andExpect(status().isAccepted());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (customerExists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(customerExists()).isFalse();
+        assertThat(ordersOfCustomer()).isZero();
+        assertThat(itemsOfProduct()).isZero();
+    }
+
+    @Test
+    void productsWithOrderHistoryAreNotDeleted() throws Exception {
+        insertOrders(1);
+
+        mockMvc.perform(delete("/products/{id}", product.getId()))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("409"));
+        assertThat(itemsOfProduct()).isEqualTo(1);
+
+        jdbcTemplate.update("DELETE FROM orders WHERE customer_id = ?", customer.getId());
+        mockMvc.perform(delete("/products/{id}", product.getId())).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/products/{id}", product.getId())).andExpect(status().isNotFound());
+    }
+
+    /**
+     * Cria pedidos de um item para o cliente; retorna o ID do último
+     */
+    private Long insertOrders(int count) {
+        Long orderId = null;
+        for (int i = 0; i < count; i++) {
+            orderId = jdbcTemplate.queryForObject("INSERT INTO orders (id, customer_id, order_date, status, item_count, "
+                            + "total_amount_in_cents) VALUES (nextval('orders_seq'), ?, now(), 0, 1, 500) RETURNING id",
+                    Long.class, customer.getId());
+            jdbcTemplate.update("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price_in_cents) "
+                    + "VALUES (nextval('order_items_seq'), ?, ?, 1, 500)", orderId, product.getId());
+        }
+        return orderId;
+    }
+
+    private boolean customerExists() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM customers WHERE id = ?", Long.class, customer.getId()) > 0;
+    }
+
+    private Long ordersOfCustomer() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM orders WHERE customer_id = ?", Long.class, customer.getId());
+    }
+
+    private Long itemsOfProduct() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM order_items WHERE product_id = ?", Long.class, product.getId());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.model.OrderItem;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.repository.OrderRepository;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Garante que as leituras de clientes retornam apenas o perfil e que
+ * ?include=orderSummary custa uma única consulta agrupada a mais por página
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import({JdbcRoundTripCounter.class, TestFixtures.class})
+class CustomerReadQueryCountTest {
+
+    private static final int CUSTOMERS = 10;
+    private static final int ORDERS_PER_CUSTOMER = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private List<Customer> customers;
+    private Product product;
+
+    @BeforeEach
+    void createFixtures() {
+        product = fixtures.product("Produto resumo", 250);
+        customers = fixtures.customers(CUSTOMERS, "Cliente", "summary");
+
+        // O último cliente fica sem pedidos; o primeiro pedido de cada cliente é cancelado
+        List<Order> orders = new ArrayList<>();
+        for (Customer customer : customers.subList(0, CUSTOMERS - 1)) {
+            for (int i = 0; i < ORDERS_PER_CUSTOMER; i++) {
+                Order order = new Order();
+                order.setCustomer(customer);
+                order.setStatus(i == 0 ? Order.OrderStatus.CANCELLED : Order.OrderStatus.PENDING);
+                OrderItem item = new OrderItem();
+                item.setProduct(product);
+                item.setQuantity(2);
+                item.setUnitPriceInCents(product.getPriceInCents());
+                order.addItem(item);
+                orders.add(order);
+            }
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void customerListReturnsProfileOnly() throws Exception {
+        counter.reset();
+        mockMvc.perform(get("/customers?after=" + (customers.get(0).getId() - 1) + "&limit=" + CUSTOMERS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(CUSTOMERS))
+                .andExpect(jsonPath("$.items[0].orders").doesNotExist())
+                .andExpect(jsonPath("$.items[0].orderSummary").doesNotExist());
+
+        assertThat(counter.statements()).isEqualTo(1);
+    }
+
+    @Test
+    void orderSummaryAddsOneGroupedQueryPerPage() throws Exception {
+        long spentPerCustomer = (ORDERS_PER_CUSTOMER - 1) * 2L * product.getPriceInCents();
+
+        counter.reset();
+        mockMvc.perform(get("/customers?after=" + (customers.get(0).getId() - 1) + "&limit=" + CUSTOMERS
+                        + "&include=orderSummary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(CUSTOMERS))
+                .andExpect(jsonPath("$.items[0].orderSummary.orderCount").value(ORDERS_PER_CUSTOMER))
+                .andExpect(jsonPath("$.items[0].orderSummary.totalSpent").value(spentPerCustomer))
+                .andExpect(jsonPath("$.items[0].orderSummary.customerId").doesNotExist())
+                .andExpect(jsonPath("$.items[" + (CUSTOMERS - 1) + "].orderSummary.orderCount").value(0));
+
+        assertThat(counter.statements()).isEqualTo(2);
+    }
+
+    @Test
+    void unknownIncludeIsRejected() throws Exception {
+        mockMvc.perform(get("/customers?after=" + (customers.get(0).getId() - 1) + "&include=orders"))
+                .andExpect(status().isBadRequest());
+        // Página vazia: o parâmetro é conferido do mesmo jeito
+        mockMvc.perform(get("/customers?after=" + Long.MAX_VALUE + "&include=orders"))
+                .andExpect(status().isBadRequest());
+    }
+}
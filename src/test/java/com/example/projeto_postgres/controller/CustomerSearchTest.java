@@ -0,0 +1,174 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.repository.CustomerRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Busca textual de clientes (tsvector): partes do nome, endereço e telefone,
+ * sem acentos, ordenada por relevância e paginada por cursor
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CustomerSearchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Palavra aleatória presente só nos clientes deste teste
+     */
+    private String word;
+    private String phoneSuffix;
+    private List<Customer> customers;
+
+    @BeforeEach
+    void createWord() {
+        StringBuilder letters = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            letters.append((char) ('a' + ThreadLocalRandom.current().nextInt(26)));
+        }
+        word = letters.toString();
+        phoneSuffix = String.valueOf(ThreadLocalRandom.current().nextInt(10_000_000, 100_000_000));
+        customers = new ArrayList<>();
+    }
+
+    @AfterEach
+    void removeCustomers() {
+        customers.forEach(customer -> jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customer.getId()));
+    }
+
+    @Test
+    void findsCustomersByNameAddressOrPhone() throws Exception {
+        Customer maria = customer("Maria " + word, "Rua das Flores, 100", "(11) 9" + phoneSuffix.substring(0, 4) + "-" + phoneSuffix.substring(4));
+        Customer joao = customer("João " + word, "Avenida Paulista, 2000", null);
+
+        mockMvc.perform(get("/customers/search").param("q", word.substring(0, 5).toUpperCase()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.hasNext").value(false));
+        mockMvc.perform(get("/customers/search").param("q", "joao " + word))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(joao.getId()));
+        mockMvc.perform(get("/customers/search").param("q", "flor, " + word))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(maria.getId()));
+
+        // Telefone com ou sem pontuação
+        mockMvc.perform(get("/customers/search").param("q", "119" + phoneSuffix))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(maria.getId()));
+        mockMvc.perform(get("/customers/search").param("q", phoneSuffix.substring(4) + " " + word))
+                .andExpect(jsonPath("$.items[0].id").value(maria.getId()));
+    }
+
+    @Test
+    void ranksNameMatchesFirst() throws Exception {
+        Customer inAddress = customer("Pedro Souza", "Rua " + word + ", 200", null);
+        Customer inName = customer("Ana " + word, "Rua Augusta, 300", null);
+
+        mockMvc.perform(get("/customers/search").param("q", word))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id").value(inName.getId()))
+                .andExpect(jsonPath("$.items[1].id").value(inAddress.getId()));
+    }
+
+    @Test
+    void pagesWithCursor() throws Exception {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(customer("Cliente " + word, i % 2 == 0 ? "Rua " + word : null, null).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            var request = get("/customers/search").param("q", word).param("limit", "2");
+            if (after != null) {
+                request.param("after", after);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            after = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (after != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void rejectsInvalidSearches() throws Exception {
+        mockMvc.perform(get("/customers/search").param("q", "  "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/customers/search").param("q", " - "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/customers/search").param("q", word).param("after", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchIsServedByTheGinIndex() {
+        // Com poucos clientes a varredura da tabela é mais barata; desligada, o plano mostra se o índice atende a busca
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                StringBuilder lines = new StringBuilder();
+                try (ResultSet rs = statement.executeQuery("EXPLAIN SELECT id FROM customers "
+                        + "WHERE search_vector @@ to_tsquery('customer_search', 'maria:* & flor:*')")) {
+                    while (rs.next()) {
+                        lines.append(rs.getString(1)).append('\n');
+                    }
+                }
+                statement.execute("RESET enable_seqscan");
+                return lines.toString();
+            }
+        });
+        assertThat(plan).contains("idx_customers_search");
+    }
+
+    private Customer customer(String name, String address, String phone) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(word + "-" + customers.size() + "@example.com");
+        customer.setAddress(address);
+        customer.setPhone(phone);
+        customer = customerRepository.save(customer);
+        customers.add(customer);
+        return customer;
+    }
+}
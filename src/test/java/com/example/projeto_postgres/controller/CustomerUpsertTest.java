@@ -0,0 +1,153 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unicidade do email pela constraint do banco: cadastros simultâneos criam um
+ * só cliente, os demais recebem 409, e o upsert por email cria ou atualiza
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CustomerUpsertTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String email;
+
+    @BeforeEach
+    void createEmail() {
+        email = "upsert-" + UUID.randomUUID() + "@example.com";
+    }
+
+    @AfterEach
+    void removeCustomers() {
+        jdbcTemplate.update("DELETE FROM customers WHERE email LIKE ?", email.replace("@", "%@"));
+    }
+
+    @Test
+    void upsertCreatesThenUpdatesByEmail() throws Exception {
+        String created = mockMvc.perform(put("/customers/by-email/{email}", email).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Cliente upsert\", \"phone\": \"1111\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.email").value(email))
+                .andReturn().getResponse().getContentAsString();
+        Long id = customerRepository.findByEmail(email).orElseThrow().getId();
+        assertThat(created).contains("\"id\":" + id);
+
+        mockMvc.perform(put("/customers/by-email/{email}", email).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Cliente renomeado\", \"phone\": \"1111\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.name").value("Cliente renomeado"));
+
+        // Os mesmos dados: nada é regravado e a versão continua a mesma
+        mockMvc.perform(put("/customers/by-email/{email}", email).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Cliente renomeado\", \"phone\": \"1111\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(put("/customers/by-email/{email}", "sem-arroba").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Cliente\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/customers/by-email/{email}", email).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void concurrentSignupsCreateOneCustomer() throws Exception {
+        List<Integer> statuses = concurrently(() -> mockMvc.perform(post("/customers").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Cadastro simultâneo\", \"email\": \"" + email + "\"}"))
+                .andReturn().getResponse().getStatus());
+
+        assertThat(statuses).filteredOn(status -> status == 201).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status == 409).hasSize(THREADS - 1);
+        assertThat(customersWithEmail()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentUpsertsCreateOneCustomer() throws Exception {
+        List<Integer> statuses = concurrently(() -> mockMvc.perform(put("/customers/by-email/{email}", email)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Upsert simultâneo\"}"))
+                .andReturn().getResponse().getStatus());
+
+        assertThat(statuses).filteredOn(status -> status == 201).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(THREADS - 1);
+        assertThat(customersWithEmail()).isEqualTo(1);
+    }
+
+    @Test
+    void changingToAnExistingEmailIsAConflict() throws Exception {
+        String other = email.replace("@", "-outro@");
+        Customer customer = new Customer();
+        customer.setName("Outro cliente");
+        customer.setEmail(other);
+        customer = customerRepository.save(customer);
+        mockMvc.perform(put("/customers/by-email/{email}", email).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Cliente\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(put("/customers/{id}", customer.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Outro cliente\", \"email\": \"" + email + "\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Já existe um cliente com este email"))
+                .andExpect(jsonPath("$.status").value("409"));
+        assertThat(customerRepository.findById(customer.getId()).orElseThrow().getEmail()).isEqualTo(other);
+    }
+
+    private List<Integer> concurrently(Callable<Integer> request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            for (Future<Integer> result : executor.invokeAll(Collections.nCopies(THREADS, request))) {
+                statuses.add(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return statuses;
+    }
+
+    private Long customersWithEmail() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM customers WHERE email = ?", Long.class, email);
+    }
+}
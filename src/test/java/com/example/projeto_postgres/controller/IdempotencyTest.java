@@ -0,0 +1,199 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.dto.CreateOrderDTO;
+import com.example.projeto_postgres.dto.OrderCreatedDTO;
+import com.example.projeto_postgres.dto.OrderItemDTO;
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.service.IdempotencyService;
+import com.example.projeto_postgres.service.OrderService;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import com.example.projeto_postgres.support.TestFixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Idempotency-Key: retentativas devolvem a resposta original sem repetir a escrita
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import({JdbcRoundTripCounter.class, TestFixtures.class})
+class IdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private Customer customer;
+    private Product product;
+    private String key;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Cliente idempotência", "idempotency");
+        product = fixtures.product("Produto idempotência", 700);
+
+        key = UUID.randomUUID().toString();
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ?", key);
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void retryReturnsTheOriginalOrderWithoutWriting() throws Exception {
+        String body = objectMapper.writeValueAsString(orderRequest(2));
+
+        String first = mockMvc.perform(post("/orders").header(IdempotencyService.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "false"))
+                .andReturn().getResponse().getContentAsString();
+
+        counter.reset();
+        String retry = mockMvc.perform(post("/orders").header(IdempotencyService.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        // A resposta vem do cache: nenhum comando no banco
+        assertThat(counter.statements()).isZero();
+        assertThat(objectMapper.readTree(retry)).isEqualTo(objectMapper.readTree(first));
+        assertThat(ordersOfCustomer()).isEqualTo(1);
+
+        // Sem o cache (outra instância, entrada expirada), um SELECT simples na tabela
+        idempotencyService.clearCache();
+        counter.reset();
+        mockMvc.perform(post("/orders").header(IdempotencyService.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value(objectMapper.readTree(first).get("id").asLong()));
+        assertThat(counter.statements()).isEqualTo(1);
+        assertThat(ordersOfCustomer()).isEqualTo(1);
+    }
+
+    @Test
+    void sameKeyWithDifferentContentIsRejected() throws Exception {
+        mockMvc.perform(post("/orders").header(IdempotencyService.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderRequest(1))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/orders").header(IdempotencyService.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(orderRequest(5))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status").value("422"));
+        assertThat(ordersOfCustomer()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentRequestsWithTheSameKeyCreateOneOrder() throws Exception {
+        CreateOrderDTO request = orderRequest(1);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<OrderCreatedDTO>> calls = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                calls.add(() -> idempotencyService.execute("orders", key, request, OrderCreatedDTO.class,
+                        () -> orderService.createOrder(request)).body());
+            }
+            List<Long> ids = new ArrayList<>();
+            for (Future<OrderCreatedDTO> result : executor.invokeAll(calls)) {
+                ids.add(result.get().id());
+            }
+            assertThat(ids).containsOnly(ids.get(0));
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(ordersOfCustomer()).isEqualTo(1);
+    }
+
+    @Test
+    void retryReturnsTheOriginalCustomer() throws Exception {
+        String email = "idempotent-customer-" + UUID.randomUUID() + "@example.com";
+        String body = "{\"name\": \"Cliente repetido\", \"email\": \"" + email + "\"}";
+
+        String first = mockMvc.perform(post("/customers").header(IdempotencyService.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        try {
+            mockMvc.perform(post("/customers").header(IdempotencyService.HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                    .andExpect(jsonPath("$.id").value(objectMapper.readTree(first).get("id").asLong()));
+        } finally {
+            jdbcTemplate.update("DELETE FROM customers WHERE email = ?", email);
+        }
+    }
+
+    @Test
+    void expiredKeysAreRemoved() {
+        jdbcTemplate.update("INSERT INTO idempotency_keys (scope, idempotency_key, request_hash, response_body, created_at) "
+                + "VALUES ('orders', ?, '\\x00', '{}', ?)", key, Timestamp.valueOf(LocalDateTime.now().minusDays(2)));
+
+        assertThat(idempotencyService.removeExpired()).isGreaterThanOrEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM idempotency_keys WHERE idempotency_key = ?",
+                Long.class, key)).isZero();
+    }
+
+    private CreateOrderDTO orderRequest(int quantity) {
+        OrderItemDTO item = new OrderItemDTO();
+        item.setProductId(product.getId());
+        item.setQuantity(quantity);
+        CreateOrderDTO order = new CreateOrderDTO();
+        order.setCustomerId(customer.getId());
+        order.getItems().add(item);
+        return order;
+    }
+
+    private long ordersOfCustomer() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM orders WHERE customer_id = ?", Long.class, customer.getId());
+    }
+}
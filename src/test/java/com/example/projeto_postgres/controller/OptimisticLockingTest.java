@@ -0,0 +1,208 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.support.TestFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Concorrência otimista: ETag nas leituras, If-Match nas escritas e nenhuma
+ * atualização perdida com escritas simultâneas
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class OptimisticLockingTest {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Product product;
+    private Customer customer;
+
+    @BeforeEach
+    void createFixtures() {
+        product = fixtures.product("Produto disputado", 1000);
+        customer = fixtures.customer("Cliente concorrência", "optimistic");
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void staleIfMatchIsRejected() throws Exception {
+        String etag = mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/products/{id}", product.getId()).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Primeira escrita\", \"priceInCents\": 1100}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        // Segunda escrita com o ETag antigo: não sobrescreve a primeira
+        mockMvc.perform(put("/products/{id}", product.getId()).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Escrita atrasada\", \"priceInCents\": 900}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value("412"));
+
+        mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(jsonPath("$.name").value("Primeira escrita"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void concurrentReadModifyWriteLosesNoUpdates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Void>> calls = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                calls.add(() -> {
+                    for (int done = 0; done < INCREMENTS_PER_THREAD; ) {
+                        MockHttpServletResponse read = mockMvc.perform(get("/products/{id}", product.getId()))
+                                .andReturn().getResponse();
+                        JsonNode current = objectMapper.readTree(read.getContentAsString());
+                        int status = mockMvc.perform(put("/products/{id}", product.getId())
+                                        .header(HttpHeaders.IF_MATCH, read.getHeader(HttpHeaders.ETAG))
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"name\": \"Produto disputado\", \"priceInCents\": "
+                                                + (current.get("priceInCents").asInt() + 1) + "}"))
+                                .andReturn().getResponse().getStatus();
+                        if (status == 200) {
+                            done++;
+                        } else {
+                            // Outra thread gravou entre a leitura e a escrita: lê de novo
+                            assertThat(status).isEqualTo(412);
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : executor.invokeAll(calls)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int increments = THREADS * INCREMENTS_PER_THREAD;
+        assertThat(jdbcTemplate.queryForObject("SELECT price_in_cents FROM products WHERE id = ?",
+                Integer.class, product.getId())).isEqualTo(1000 + increments);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM products WHERE id = ?",
+                Long.class, product.getId())).isEqualTo(increments);
+    }
+
+    @Test
+    void concurrentStatusBatchesApplyEachOrderOnce() throws Exception {
+        int orders = 500;
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            ids.add(jdbcTemplate.queryForObject("INSERT INTO orders (id, customer_id, order_date, status, item_count, "
+                            + "total_amount_in_cents) VALUES (nextval('orders_seq'), ?, now(), 1, 0, 0) RETURNING id",
+                    Long.class, customer.getId()));
+        }
+        List<Long> reversed = new ArrayList<>(ids);
+        Collections.reverse(reversed);
+
+        // CONFIRMED pode ir para SHIPPED ou CANCELLED, mas não de um para o outro
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Callable<JsonNode>> calls = List.of(
+                    () -> updateStatus(ids, Order.OrderStatus.SHIPPED),
+                    () -> updateStatus(reversed, Order.OrderStatus.CANCELLED));
+            Set<Long> updated = new HashSet<>();
+            int total = 0;
+            for (Future<JsonNode> result : executor.invokeAll(calls)) {
+                for (JsonNode id : result.get().get("updated")) {
+                    updated.add(id.asLong());
+                    total++;
+                }
+            }
+            assertThat(total).isEqualTo(orders);
+            assertThat(updated).containsExactlyInAnyOrderElementsOf(ids);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT version FROM orders WHERE customer_id = ?",
+                Long.class, customer.getId())).containsExactly(1L);
+    }
+
+    @Test
+    void statusUpdateHonorsIfMatch() throws Exception {
+        Long id = jdbcTemplate.queryForObject("INSERT INTO orders (id, customer_id, order_date, status, item_count, "
+                        + "total_amount_in_cents) VALUES (nextval('orders_seq'), ?, now(), 0, 0, 0) RETURNING id",
+                Long.class, customer.getId());
+
+        mockMvc.perform(get("/orders/{id}", id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        mockMvc.perform(put("/orders/{id}/status", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\": \"CONFIRMED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        mockMvc.perform(put("/orders/{id}/status", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\": \"CANCELLED\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(Order.OrderStatus.fromCode(
+                jdbcTemplate.queryForObject("SELECT status FROM orders WHERE id = ?", Short.class, id)))
+                .isEqualTo(Order.OrderStatus.CONFIRMED);
+    }
+
+    private JsonNode updateStatus(List<Long> ids, Order.OrderStatus status) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("ids", ids, "status", status.name()));
+        return objectMapper.readTree(mockMvc.perform(put("/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Criação de pedidos em lote: resultado por pedido e número de comandos
+ * independente da quantidade de pedidos (sem uma consulta por cliente/produto)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import({JdbcRoundTripCounter.class, TestFixtures.class})
+class OrderBatchTest {
+
+    private static final int ORDERS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private List<Customer> customers;
+    private List<Product> products;
+
+    @BeforeEach
+    void createFixtures() {
+        customers = fixtures.customers(2, "Cliente lote", "batch");
+        products = fixtures.products(3, "Produto lote", i -> 100 * (i + 1));
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void invalidOrdersDoNotFailTheBatch() throws Exception {
+        String body = "{\"orders\": ["
+                + order(customers.get(0).getId(), products.get(0).getId(), 2) + ","
+                + order(-1L, products.get(0).getId(), 1) + ","
+                + order(customers.get(1).getId(), -2L, 1) + ","
+                + order(customers.get(1).getId(), products.get(1).getId(), 0) + ","
+                + "{\"customerId\": " + customers.get(1).getId() + ", \"items\": []}" + ","
+                + order(customers.get(1).getId(), products.get(2).getId(), 3)
+                + "]}";
+
+        mockMvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(4))
+                .andExpect(jsonPath("$.results[0].id").isNumber())
+                .andExpect(jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(jsonPath("$.results[1].error").value("Cliente não encontrado: -1"))
+                .andExpect(jsonPath("$.results[2].error").value("Produtos não encontrados: [-2]"))
+                .andExpect(jsonPath("$.results[3].error").value("items[0].quantity: A quantidade deve ser maior que zero"))
+                .andExpect(jsonPath("$.results[4].error").value("items: O pedido deve ter pelo menos um item"))
+                .andExpect(jsonPath("$.results[5].index").value(5))
+                .andExpect(jsonPath("$.results[5].id").isNumber());
+
+        assertThat(jdbcTemplate.queryForList("SELECT total_amount_in_cents FROM orders WHERE customer_id IN (?, ?) ORDER BY id",
+                Long.class, customers.get(0).getId(), customers.get(1).getId()))
+                .containsExactly(2L * products.get(0).getPriceInCents(), 3L * products.get(2).getPriceInCents());
+    }
+
+    @Test
+    void batchResolvesReferencesOnceAndInsertsInJdbcBatches() throws Exception {
+        StringBuilder body = new StringBuilder("{\"orders\": [");
+        for (int i = 0; i < ORDERS; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(order(customers.get(i % 2).getId(), products.get(i % 3).getId(), 1 + i % 4));
+        }
+        body.append("]}");
+
+        counter.reset();
+        mockMvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(ORDERS))
+                .andExpect(jsonPath("$.failed").value(0));
+
+        // Clientes (1) e produtos (no máximo 1), nextval das sequences e INSERTs em lotes de 50
+        assertThat(counter.statements()).isLessThan(20);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_items i JOIN orders o ON o.id = i.order_id "
+                + "WHERE o.customer_id IN (?, ?)", Long.class, customers.get(0).getId(), customers.get(1).getId()))
+                .isEqualTo(ORDERS);
+    }
+
+    @Test
+    void failedChunkKeepsTheChunksAlreadySaved() throws Exception {
+        // Uma falha que não é violação de constraint (como um deadlock ou tempo de lock esgotado) nos pedidos do segundo cliente
+        String trigger = "fail_batch_" + customers.get(1).getId();
+        jdbcTemplate.execute("CREATE FUNCTION " + trigger + "() RETURNS trigger LANGUAGE plpgsql AS "
+                + "$$ BEGIN RAISE EXCEPTION 'falha simulada'; END $$");
+        jdbcTemplate.execute("CREATE TRIGGER " + trigger + " BEFORE INSERT ON orders FOR EACH ROW "
+                + "WHEN (NEW.customer_id = " + customers.get(1).getId() + ") EXECUTE FUNCTION " + trigger + "()");
+        try {
+            // Primeiro bloco (500 pedidos) só do primeiro cliente; o segundo bloco falha
+            StringBuilder body = new StringBuilder("{\"orders\": [");
+            for (int i = 0; i < 600; i++) {
+                if (i > 0) {
+                    body.append(',');
+                }
+                body.append(order(customers.get(i < 500 ? 0 : 1).getId(), products.get(0).getId(), 1));
+            }
+            body.append("]}");
+
+            mockMvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.created").value(500))
+                    .andExpect(jsonPath("$.failed").value(100))
+                    .andExpect(jsonPath("$.results[499].id").isNumber())
+                    .andExpect(jsonPath("$.results[500].error")
+                            .value("Pedido não gravado por uma falha no banco; pode ser reenviado"));
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER " + trigger + " ON orders");
+            jdbcTemplate.execute("DROP FUNCTION " + trigger + "()");
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM orders WHERE customer_id = ?",
+                Long.class, customers.get(0).getId())).isEqualTo(500);
+    }
+
+    @Test
+    void emptyBatchIsRejected() throws Exception {
+        mockMvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON).content("{\"orders\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String order(Long customerId, Long productId, int quantity) {
+        return "{\"customerId\": " + customerId + ", \"items\": [{\"productId\": " + productId
+                + ", \"quantity\": " + quantity + "}]}";
+    }
+}
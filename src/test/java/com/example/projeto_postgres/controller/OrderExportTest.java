@@ -0,0 +1,125 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.model.OrderItem;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.repository.OrderRepository;
+import com.example.projeto_postgres.support.TestFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exportação NDJSON: um pedido completo por linha, com filtros de período e status
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class OrderExportTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2001, 1, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Customer customer;
+    private Product product;
+    private List<Order> orders;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Cliente exportação", "export");
+        product = fixtures.product("Produto exportação", 300);
+
+        // Um pedido por dia; pedidos pares entregues, ímpares pendentes; o pedido i tem i + 1 itens
+        orders = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Order order = new Order();
+            order.setCustomer(customer);
+            order.setOrderDate(START.plusDays(i));
+            order.setStatus(i % 2 == 0 ? Order.OrderStatus.DELIVERED : Order.OrderStatus.PENDING);
+            for (int j = 0; j <= i; j++) {
+                OrderItem item = new OrderItem();
+                item.setProduct(product);
+                item.setQuantity(1);
+                item.setUnitPriceInCents(product.getPriceInCents());
+                order.addItem(item);
+            }
+            orders.add(order);
+        }
+        orders = orderRepository.saveAll(orders);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void exportsOneCompleteOrderPerLine() throws Exception {
+        List<JsonNode> lines = export("from=" + START + "&to=" + START.plusDays(6));
+
+        assertThat(lines).extracting(line -> line.get("id").asLong())
+                .containsExactlyElementsOf(orders.stream().map(Order::getId).toList());
+        JsonNode last = lines.get(5);
+        assertThat(last.get("items")).hasSize(6);
+        assertThat(last.get("totalAmount").asLong()).isEqualTo(6L * product.getPriceInCents());
+        assertThat(last.get("customerName").asText()).isEqualTo(customer.getName());
+    }
+
+    @Test
+    void filtersByDateRangeAndStatus() throws Exception {
+        List<JsonNode> lines = export("from=" + START.plusDays(1) + "&to=" + START.plusDays(5) + "&status=DELIVERED");
+
+        assertThat(lines).extracting(line -> line.get("id").asLong())
+                .containsExactly(orders.get(2).getId(), orders.get(4).getId());
+    }
+
+    private List<JsonNode> export(String query) throws Exception {
+        MvcResult started = mockMvc.perform(get("/orders/export?" + query))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+}
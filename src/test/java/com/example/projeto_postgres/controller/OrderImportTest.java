@@ -0,0 +1,130 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.support.TestFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Importação NDJSON: erros por linha, progresso e interrupção em JSON malformado
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class OrderImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+    private Product product;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Cliente importação", "import");
+        product = fixtures.product("Produto importação", 250);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void importsValidLinesAndReportsInvalidOnes() throws Exception {
+        String body = order(product.getId(), 1) + "\n"
+                + order(product.getId(), 2) + "\n"
+                + "{\"customerId\": " + customer.getId() + ", \"items\": [{\"productId\": 1, \"quantity\": \"muitos\"}]}\n"
+                + "\n"
+                + order(-5L, 1) + "\n"
+                + order(product.getId(), 3) + "\n";
+
+        List<JsonNode> progress = importOrders(body);
+
+        JsonNode done = progress.get(progress.size() - 1);
+        assertThat(done.get("done").asBoolean()).isTrue();
+        assertThat(done.get("processed").asLong()).isEqualTo(5);
+        assertThat(done.get("created").asLong()).isEqualTo(3);
+        assertThat(done.get("failed").asLong()).isEqualTo(2);
+        assertThat(done.get("error")).isNull();
+        assertThat(progress.stream().flatMap(line -> line.get("errors").valueStream()))
+                .extracting(error -> error.get("line").asLong())
+                .containsExactly(3L, 5L);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(total_amount_in_cents) FROM orders WHERE customer_id = ?",
+                Long.class, customer.getId())).isEqualTo(6L * product.getPriceInCents());
+    }
+
+    @Test
+    void malformedJsonStopsTheImportAndKeepsPreviousOrders() throws Exception {
+        String body = order(product.getId(), 1) + "\n"
+                + "{\"customerId\": ???}\n"
+                + order(product.getId(), 1) + "\n";
+
+        List<JsonNode> progress = importOrders(body);
+
+        JsonNode last = progress.get(progress.size() - 1);
+        assertThat(last.get("done").asBoolean()).isTrue();
+        assertThat(last.get("created").asLong()).isEqualTo(1);
+        assertThat(last.get("error").asText()).startsWith("JSON inválido na linha 2");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM orders WHERE customer_id = ?",
+                Long.class, customer.getId())).isEqualTo(1);
+    }
+
+    private String order(Long productId, int quantity) {
+        return "{\"customerId\": " + customer.getId() + ", \"items\": [{\"productId\": " + productId
+                + ", \"quantity\": " + quantity + "}]}";
+    }
+
+    private List<JsonNode> importOrders(String body) throws Exception {
+        MvcResult started = mockMvc.perform(post("/orders/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+}
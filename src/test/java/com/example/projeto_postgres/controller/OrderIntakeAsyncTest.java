@@ -0,0 +1,135 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.dto.OrderIntakeStatusDTO;
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.service.OrderIntakeService;
+import com.example.projeto_postgres.support.TestFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Modo assíncrono de POST /orders: 202 com rastreamento, gravação em lote e 429 com a fila cheia
+ */
+@SpringBootTest(properties = {"app.orders.intake.mode=async", "app.orders.intake.queue-capacity=3"})
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class OrderIntakeAsyncTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+    private Product product;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Cliente fila", "intake");
+        product = fixtures.product("Produto fila", 120);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        if (!orderIntakeService.isRunning()) {
+            orderIntakeService.start();
+        }
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void acceptedOrderBecomesDurable() throws Exception {
+        String trackingId = submit(customer.getId());
+
+        JsonNode status = awaitCompletion(trackingId);
+        assertThat(status.get("status").asText()).isEqualTo("DURABLE");
+        assertThat(jdbcTemplate.queryForObject("SELECT total_amount_in_cents FROM orders WHERE id = ?",
+                Long.class, status.get("orderId").asLong())).isEqualTo(2L * product.getPriceInCents());
+    }
+
+    @Test
+    void orderWithUnknownCustomerFails() throws Exception {
+        String trackingId = submit(-1L);
+
+        JsonNode status = awaitCompletion(trackingId);
+        assertThat(status.get("status").asText()).isEqualTo("FAILED");
+        assertThat(status.get("error").asText()).isEqualTo("Cliente não encontrado: -1");
+    }
+
+    @Test
+    void fullQueueReturns429() throws Exception {
+        // Sem a thread de gravação, a fila (capacidade 3) enche
+        orderIntakeService.stop();
+        List<String> accepted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            accepted.add(submit(customer.getId()));
+        }
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(orderBody(customer.getId())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.status").value("429"));
+
+        orderIntakeService.start();
+        for (String trackingId : accepted) {
+            assertThat(awaitCompletion(trackingId).get("status").asText()).isEqualTo("DURABLE");
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM orders WHERE customer_id = ?",
+                Long.class, customer.getId())).isEqualTo(3);
+    }
+
+    private String submit(Long customerId) throws Exception {
+        String response = mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(orderBody(customerId)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("trackingId").asText();
+    }
+
+    private JsonNode awaitCompletion(String trackingId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            JsonNode status = objectMapper.readTree(mockMvc.perform(get("/orders/intake/" + trackingId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (!OrderIntakeStatusDTO.Status.QUEUED.name().equals(status.get("status").asText())) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Pedido não saiu da fila: " + trackingId);
+    }
+
+    private String orderBody(Long customerId) {
+        return "{\"customerId\": " + customerId + ", \"items\": [{\"productId\": " + product.getId() + ", \"quantity\": 2}]}";
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.model.OrderItem;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.repository.OrderRepository;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Garante que as leituras de pedidos executam um número fixo de consultas,
+ * qualquer que seja o tamanho da página (sem N+1 em itens, produtos ou cliente)
+ *
+ * As listagens são resumos agregados em uma única consulta; o detalhe usa
+ * uma consulta para o resumo e outra para as linhas do pedido
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import({JdbcRoundTripCounter.class, TestFixtures.class})
+class OrderReadQueryCountTest {
+
+    private static final int ORDERS = 30;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private Customer customer;
+    private List<Product> products;
+    private List<Order> orders;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Cliente N+1", "n-plus-one");
+        products = fixtures.products(ORDERS * ITEMS_PER_ORDER, "Produto", i -> 100 + i);
+
+        orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setCustomer(customer);
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                Product product = products.get(i * ITEMS_PER_ORDER + j);
+                OrderItem item = new OrderItem();
+                item.setProduct(product);
+                item.setQuantity(1);
+                item.setUnitPriceInCents(product.getPriceInCents());
+                order.addItem(item);
+            }
+            orders.add(order);
+        }
+        orders = orderRepository.saveAll(orders);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void orderListUsesTheSameNumberOfQueriesForAnyPageSize() throws Exception {
+        long firstPage = statementsFor("/orders?after=" + (orders.get(0).getId() - 1) + "&limit=5", 5);
+        long largePage = statementsFor("/orders?after=" + (orders.get(0).getId() - 1) + "&limit=" + ORDERS, ORDERS);
+
+        assertThat(firstPage).isEqualTo(1);
+        assertThat(largePage).isEqualTo(firstPage);
+    }
+
+    @Test
+    void customerOrderListUsesTheSameNumberOfQueriesForAnyPageSize() throws Exception {
+        long firstPage = statementsFor("/orders/customer/" + customer.getId() + "?limit=5", 5);
+        long largePage = statementsFor("/orders/customer/" + customer.getId() + "?limit=" + ORDERS, ORDERS);
+
+        assertThat(firstPage).isEqualTo(1);
+        assertThat(largePage).isEqualTo(firstPage);
+    }
+
+    @Test
+    void orderDetailUsesTwoQueries() throws Exception {
+        counter.reset();
+        mockMvc.perform(get("/orders/" + orders.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(ITEMS_PER_ORDER))
+                .andExpect(jsonPath("$.items[0].productName").value(products.get(0).getName()))
+                .andExpect(jsonPath("$.items[0].subtotal").value(products.get(0).getPriceInCents()))
+                .andExpect(jsonPath("$.customerName").value(customer.getName()))
+                .andExpect(jsonPath("$.customer").doesNotExist());
+
+        assertThat(counter.statements()).isEqualTo(2);
+    }
+
+    private long statementsFor(String url, int expectedOrders) throws Exception {
+        counter.reset();
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(expectedOrders))
+                .andExpect(jsonPath("$.items[0].itemCount").value(ITEMS_PER_ORDER))
+                .andExpect(jsonPath("$.items[0].customerName").value(customer.getName()))
+                .andExpect(jsonPath("$.items[0].items").doesNotExist());
+        return counter.statements();
+    }
+}
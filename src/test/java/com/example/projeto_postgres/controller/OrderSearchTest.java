@@ -0,0 +1,152 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.support.TestFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Busca de pedidos: filtros combinados, do mais recente para o mais antigo,
+ * e paginação por cursor (order_date, id)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class OrderSearchTest {
+
+    /**
+     * Pedidos deste teste ficam em 1991, longe dos pedidos dos demais testes
+     */
+    private static final LocalDateTime JANUARY = LocalDateTime.of(1991, 1, 10, 12, 0);
+    private static final LocalDateTime FEBRUARY = JANUARY.plusMonths(1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Customer customer;
+    private Customer otherCustomer;
+
+    @BeforeEach
+    void createCustomers() {
+        customer = fixtures.customer("Cliente busca de pedidos", "order-search");
+        otherCustomer = fixtures.customer("Cliente busca de pedidos", "order-search");
+    }
+
+    @AfterEach
+    void removeCustomers() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void combinesOnlyTheSuppliedFilters() throws Exception {
+        Long pending = order(customer, JANUARY, Order.OrderStatus.PENDING, 5000);
+        Long delivered = order(customer, JANUARY.plusDays(1), Order.OrderStatus.DELIVERED, 20000);
+        Long february = order(customer, FEBRUARY, Order.OrderStatus.PENDING, 30000);
+        Long otherPending = order(otherCustomer, JANUARY.plusDays(2), Order.OrderStatus.PENDING, 40000);
+
+        mockMvc.perform(get("/orders/search").param("customerId", customer.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[0].id").value(february))
+                .andExpect(jsonPath("$.items[0].customerName").value(customer.getName()))
+                .andExpect(jsonPath("$.items[0].totalAmount").value(30000));
+        mockMvc.perform(get("/orders/search").param("customerId", customer.getId().toString()).param("status", "PENDING"))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[1].id").value(pending));
+        mockMvc.perform(get("/orders/search").param("customerId", customer.getId().toString())
+                        .param("from", JANUARY.toString()).param("to", FEBRUARY.toString()))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id").value(delivered));
+        mockMvc.perform(get("/orders/search").param("customerId", customer.getId().toString())
+                        .param("minTotalInCents", "20000"))
+                .andExpect(jsonPath("$.items", hasSize(2)));
+
+        // Sem cliente: status em um período, de todos os clientes
+        mockMvc.perform(get("/orders/search").param("status", "PENDING")
+                        .param("from", JANUARY.toString()).param("to", FEBRUARY.toString()))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id").value(otherPending))
+                .andExpect(jsonPath("$.items[1].id").value(pending));
+        mockMvc.perform(get("/orders/search").param("status", "PENDING").param("status", "DELIVERED")
+                        .param("from", JANUARY.toString()).param("to", FEBRUARY.toString())
+                        .param("minTotalInCents", "10000"))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id").value(otherPending))
+                .andExpect(jsonPath("$.items[1].id").value(delivered));
+    }
+
+    @Test
+    void pagesFromNewestToOldest() throws Exception {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Dois pedidos por data: o empate é desfeito pelo ID
+            expected.add(order(customer, JANUARY.plusDays(i / 2), Order.OrderStatus.PENDING, 1000));
+        }
+        List<Long> newestFirst = new ArrayList<>(expected);
+        Collections.reverse(newestFirst);
+
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            var request = get("/orders/search").param("customerId", customer.getId().toString()).param("limit", "2");
+            if (after != null) {
+                request.param("after", after);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            after = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (after != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactlyElementsOf(newestFirst);
+    }
+
+    @Test
+    void rejectsInvalidSearches() throws Exception {
+        mockMvc.perform(get("/orders/search").param("from", FEBRUARY.toString()).param("to", JANUARY.toString()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/orders/search").param("after", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long order(Customer customer, LocalDateTime orderDate, Order.OrderStatus status, long totalInCents) {
+        return jdbcTemplate.queryForObject("INSERT INTO orders (id, customer_id, order_date, status, item_count, "
+                        + "total_amount_in_cents, version) VALUES (nextval('orders_seq'), ?, ?, ?, 1, ?, 0) RETURNING id",
+                Long.class, customer.getId(), Timestamp.valueOf(orderDate), status.getCode(), totalInCents);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Order;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Mudança de status: transições permitidas, resultado por pedido e número de
+ * comandos independente da quantidade de pedidos
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import({JdbcRoundTripCounter.class, TestFixtures.class})
+class OrderStatusBatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private Customer customer;
+
+    @BeforeEach
+    void createCustomer() {
+        customer = fixtures.customer("Cliente status", "status");
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void bulkUpdateAppliesOnlyAllowedTransitions() throws Exception {
+        long confirmed1 = insertOrder(Order.OrderStatus.CONFIRMED);
+        long confirmed2 = insertOrder(Order.OrderStatus.CONFIRMED);
+        long shipped = insertOrder(Order.OrderStatus.SHIPPED);
+        long pending = insertOrder(Order.OrderStatus.PENDING);
+        long delivered = insertOrder(Order.OrderStatus.DELIVERED);
+
+        counter.reset();
+        mockMvc.perform(put("/orders/status").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + confirmed1 + ", " + confirmed2 + ", " + shipped + ", " + pending + ", "
+                                + delivered + ", -1, " + confirmed1 + "], \"status\": \"shipped\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SHIPPED"))
+                .andExpect(jsonPath("$.updated.length()").value(2))
+                .andExpect(jsonPath("$.updated[0]").value(confirmed1))
+                .andExpect(jsonPath("$.updated[1]").value(confirmed2))
+                .andExpect(jsonPath("$.unchanged[0]").value(shipped))
+                .andExpect(jsonPath("$.rejected.length()").value(3))
+                .andExpect(jsonPath("$.rejected[0].id").value(pending))
+                .andExpect(jsonPath("$.rejected[0].currentStatus").value("PENDING"))
+                .andExpect(jsonPath("$.rejected[0].error").value("Transição de status não permitida: PENDING -> SHIPPED"))
+                .andExpect(jsonPath("$.rejected[1].id").value(delivered))
+                .andExpect(jsonPath("$.rejected[2].id").value(-1))
+                .andExpect(jsonPath("$.rejected[2].currentStatus").doesNotExist())
+                .andExpect(jsonPath("$.rejected[2].error").value("Pedido não encontrado"));
+
+        // Um UPDATE para os pedidos alterados e um SELECT para os demais
+        assertThat(counter.statements()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM orders WHERE customer_id = ? ORDER BY id",
+                Short.class, customer.getId()).stream().map(Order.OrderStatus::fromCode))
+                .containsExactly(Order.OrderStatus.SHIPPED, Order.OrderStatus.SHIPPED, Order.OrderStatus.SHIPPED,
+                        Order.OrderStatus.PENDING, Order.OrderStatus.DELIVERED);
+    }
+
+    @Test
+    void singleUpdateRejectsInvalidTransition() throws Exception {
+        long delivered = insertOrder(Order.OrderStatus.DELIVERED);
+
+        mockMvc.perform(put("/orders/{id}/status", delivered).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\": \"PENDING\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Transição de status não permitida: DELIVERED -> PENDING"));
+
+        long pending = insertOrder(Order.OrderStatus.PENDING);
+        mockMvc.perform(put("/orders/{id}/status", pending).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\": \"CONFIRMED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+    }
+
+    @Test
+    void emptyListIsRejected() throws Exception {
+        mockMvc.perform(put("/orders/status").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [], \"status\": \"SHIPPED\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long insertOrder(Order.OrderStatus status) {
+        return jdbcTemplate.queryForObject("INSERT INTO orders (id, customer_id, order_date, status, item_count, "
+                        + "total_amount_in_cents) VALUES (nextval('orders_seq'), ?, now(), ?, 0, 0) RETURNING id",
+                Long.class, customer.getId(), status.getCode());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.service.ProductNameIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Autocomplete em memória: prefixo de qualquer palavra, sem acentos, e
+ * criações, alterações e exclusões refletidas sem reconstruir o índice
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductAutocompleteTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductNameIndex productNameIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Palavra aleatória presente só nos produtos deste teste
+     */
+    private String word;
+    private List<Long> products;
+
+    @BeforeEach
+    void createWord() {
+        StringBuilder letters = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            letters.append((char) ('a' + ThreadLocalRandom.current().nextInt(26)));
+        }
+        word = letters.toString();
+        products = new ArrayList<>();
+    }
+
+    @AfterEach
+    void removeProducts() {
+        products.forEach(id -> {
+            jdbcTemplate.update("DELETE FROM products WHERE id = ?", id);
+            productNameIndex.remove(id);
+        });
+    }
+
+    @Test
+    void suggestsByPrefixOfAnyWord() throws Exception {
+        Long chair = create("Cadeira " + word + " Ergonômica");
+        Long cafe = create("Café " + word);
+
+        mockMvc.perform(get("/products/autocomplete").param("prefix", word.substring(0, 5).toUpperCase()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+        mockMvc.perform(get("/products/autocomplete").param("prefix", "cadeira " + word + " ergo"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(chair))
+                .andExpect(jsonPath("$[0].name").value("Cadeira " + word + " Ergonômica"));
+        mockMvc.perform(get("/products/autocomplete").param("prefix", "CAFE " + word))
+                .andExpect(jsonPath("$[0].id").value(cafe));
+        mockMvc.perform(get("/products/autocomplete").param("prefix", word).param("limit", "1"))
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(get("/products/autocomplete").param("prefix", " - "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() throws Exception {
+        Long id = create("Mesa " + word);
+
+        mockMvc.perform(put("/products/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Escrivaninha " + word + "\", \"priceInCents\": 1000}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/products/autocomplete").param("prefix", "mesa " + word))
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/products/autocomplete").param("prefix", "escrivaninha " + word))
+                .andExpect(jsonPath("$[0].id").value(id));
+
+        // Depois da reconstrução a partir do banco, o nome novo continua lá
+        productNameIndex.rebuild();
+        mockMvc.perform(get("/products/autocomplete").param("prefix", word))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Escrivaninha " + word));
+
+        mockMvc.perform(delete("/products/{id}", id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/products/autocomplete").param("prefix", word))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void rebuildPicksUpProductsWrittenElsewhere() throws Exception {
+        Long id = jdbcTemplate.queryForObject("INSERT INTO products (id, name, price_in_cents, version) "
+                + "VALUES (nextval('products_seq'), ?, 1000, 0) RETURNING id", Long.class, "Luminária " + word);
+        products.add(id);
+        mockMvc.perform(get("/products/autocomplete").param("prefix", word))
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        productNameIndex.rebuild();
+        mockMvc.perform(get("/products/autocomplete").param("prefix", word))
+                .andExpect(jsonPath("$[0].id").value(id));
+
+        assertThat(meterRegistry.get("autocomplete.index.products").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("autocomplete.index.memory").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("autocomplete.index.rebuild").timer().count()).isPositive();
+    }
+
+    private Long create(String name) throws Exception {
+        String body = mockMvc.perform(post("/products").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"" + name + "\", \"priceInCents\": 1000}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = Long.valueOf(body.replaceAll(".*\"id\":(\\d+).*", "$1"));
+        products.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.repository.ProductRepository;
+import com.example.projeto_postgres.support.JdbcRoundTripCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cache do catálogo: leituras repetidas não vão ao banco, e atualização ou
+ * remoção do produto invalidam a entrada
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(JdbcRoundTripCounter.class)
+class ProductCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    private Product product;
+
+    @BeforeEach
+    void createFixtures() {
+        product = new Product();
+        product.setName("Produto cache");
+        product.setPriceInCents(1000);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", product.getId());
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() throws Exception {
+        mockMvc.perform(get("/products/" + product.getId())).andExpect(status().isOk());
+
+        counter.reset();
+        mockMvc.perform(get("/products/" + product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.priceInCents").value(1000));
+
+        assertThat(counter.statements()).isZero();
+    }
+
+    @Test
+    void updateEvictsTheCachedProduct() throws Exception {
+        mockMvc.perform(get("/products/" + product.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(put("/products/" + product.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Produto cache\", \"priceInCents\": 1500}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/" + product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.priceInCents").value(1500));
+    }
+
+    @Test
+    void deleteEvictsTheCachedProduct() throws Exception {
+        mockMvc.perform(get("/products/" + product.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/products/" + product.getId())).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/products/" + product.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void orderForAProductDeletedBehindTheCacheIsNotFound() throws Exception {
+        mockMvc.perform(get("/products/" + product.getId())).andExpect(status().isOk());
+        // Como se outra instância tivesse deletado o produto: a entrada continua no cache
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", product.getId());
+        Long customerId = jdbcTemplate.queryForObject("INSERT INTO customers (id, name, email, version) "
+                + "VALUES (nextval('customers_seq'), 'Cliente cache', ?, 0) RETURNING id",
+                Long.class, "product-cache-" + UUID.randomUUID() + "@example.com");
+        try {
+            // A chave estrangeira recusa o item; o erro identifica o produto, não o cliente
+            mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"customerId\": " + customerId + ", \"items\": ["
+                                    + "{\"productId\": " + product.getId() + ", \"quantity\": 1}]}"))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message").value("Produto não encontrado"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customerId);
+        }
+    }
+}
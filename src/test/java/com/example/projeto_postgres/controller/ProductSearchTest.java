@@ -0,0 +1,112 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Busca de produtos por nome (pg_trgm): partes do nome, erros de digitação,
+ * ordenação por similaridade, faixa de preço e limite
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductSearchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Palavra aleatória presente só nos produtos deste teste
+     */
+    private String word;
+    private List<Product> products;
+
+    @BeforeEach
+    void createProducts() {
+        StringBuilder letters = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            letters.append((char) ('a' + ThreadLocalRandom.current().nextInt(26)));
+        }
+        word = letters.toString();
+        products = new ArrayList<>();
+        product("Cadeira " + word, 30000);
+        product("Cadeira " + word + " azul", 45000);
+        product("Mesa " + word, 80000);
+    }
+
+    @AfterEach
+    void removeProducts() {
+        products.forEach(product -> jdbcTemplate.update("DELETE FROM products WHERE id = ?", product.getId()));
+    }
+
+    @Test
+    void findsProductsByPartOfTheName() throws Exception {
+        mockMvc.perform(get("/products/search").param("q", word.toUpperCase()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+
+        // Um erro de digitação ainda encontra os produtos
+        String typo = word.substring(0, 7) + (word.charAt(7) == 'x' ? 'y' : 'x');
+        mockMvc.perform(get("/products/search").param("q", typo))
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+
+    @Test
+    void ordersBySimilarity() throws Exception {
+        mockMvc.perform(get("/products/search").param("q", word + " azul"))
+                .andExpect(jsonPath("$[0].name").value("Cadeira " + word + " azul"));
+
+        mockMvc.perform(get("/products/search").param("q", word).param("limit", "2"))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void filtersByPriceRange() throws Exception {
+        mockMvc.perform(get("/products/search").param("q", word)
+                        .param("minPriceInCents", "40000").param("maxPriceInCents", "80000"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].priceInCents").value(45000))
+                .andExpect(jsonPath("$[1].priceInCents").value(80000));
+
+        mockMvc.perform(get("/products/search").param("q", word).param("maxPriceInCents", "30000"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void rejectsInvalidSearches() throws Exception {
+        mockMvc.perform(get("/products/search").param("q", "  "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/search").param("q", word)
+                        .param("minPriceInCents", "500").param("maxPriceInCents", "100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void product(String name, int priceInCents) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPriceInCents(priceInCents);
+        products.add(productRepository.save(product));
+    }
+}
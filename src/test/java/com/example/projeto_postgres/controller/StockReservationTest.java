@@ -0,0 +1,234 @@
+package com.example.projeto_postgres.controller;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.service.StockService;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Estoque: pedidos simultâneos nunca vendem mais que o estoque, pedidos que
+ * falham devolvem a reserva e cancelamentos devolvem o estoque ao banco
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class StockReservationTest {
+
+    private static final int THREADS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+    private List<Product> products;
+
+    @BeforeEach
+    void createFixtures() {
+        customer = fixtures.customer("Cliente estoque", "stock");
+        products = new ArrayList<>();
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        stockService.reconcile();
+        fixtures.cleanUp();
+        products.forEach(product -> stockService.forget(product.getId()));
+    }
+
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        int stock = 30;
+        int orders = 60;
+        Long productId = product(stock).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < orders; i++) {
+                calls.add(() -> mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                                .content(order(productId, 1)))
+                        .andReturn().getResponse().getStatus());
+            }
+            for (Future<Integer> result : executor.invokeAll(calls)) {
+                statuses.add(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(statuses).filteredOn(status -> status == 201).hasSize(stock);
+        assertThat(statuses).filteredOn(status -> status == 409).hasSize(orders - stock);
+        assertThat(soldUnits(productId)).isEqualTo(stock);
+
+        stockService.reconcile();
+        assertThat(storedStock(productId)).isZero();
+    }
+
+    @Test
+    void failedOrderReturnsItsReservation() throws Exception {
+        Long first = product(10).getId();
+        Long second = product(2).getId();
+
+        // O segundo produto não tem estoque: o pedido inteiro falha
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerId\": " + customer.getId() + ", \"items\": ["
+                                + "{\"productId\": " + first + ", \"quantity\": 4},"
+                                + "{\"productId\": " + second + ", \"quantity\": 3}]}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Estoque insuficiente para o produto " + second));
+
+        // No lote, só o pedido sem estoque falha
+        mockMvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\": [" + order(first, 6) + "," + order(first, 5) + "," + order(second, 2) + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[1].error").value("Estoque insuficiente para o produto " + first));
+
+        mockMvc.perform(get("/products/{id}/stock", first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockQuantity").value(4));
+        stockService.reconcile();
+        assertThat(storedStock(first)).isEqualTo(4);
+        assertThat(storedStock(second)).isZero();
+    }
+
+    @Test
+    void concurrentBatchesAndReconcileDoNotWaitOnEachOther() throws Exception {
+        Long first = product(100_000).getId();
+        Long second = product(100_000).getId();
+        // Cada lote volta aos dois produtos várias vezes, com reabastecimentos no meio
+        StringBuilder body = new StringBuilder("{\"orders\": [");
+        for (int i = 0; i < 20; i++) {
+            body.append(i > 0 ? "," : "").append(order(i % 2 == 0 ? second : first, 7));
+        }
+        String batch = body.append("]}").toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS / 2 + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            executor.submit(() -> {
+                while (running.get()) {
+                    stockService.reconcile();
+                }
+            });
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < THREADS / 2 * 5; i++) {
+                calls.add(() -> mockMvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON)
+                                .content(batch))
+                        .andReturn().getResponse().getStatus());
+            }
+            // Um deadlock entre o lock do contador e o da linha travaria os lotes para sempre
+            for (Future<Integer> result : executor.invokeAll(calls, 60, TimeUnit.SECONDS)) {
+                statuses.add(result.isCancelled() ? null : result.get());
+            }
+        } finally {
+            running.set(false);
+            executor.shutdown();
+            // O PostgreSQL não vê o ciclo: encerra quem espera uma linha até os lotes terminarem
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+                        + "WHERE datname = current_database() AND wait_event_type = 'Lock'");
+            }
+        }
+
+        assertThat(statuses).as("lotes sem resposta em 60 s").doesNotContainNull().containsOnly(200);
+        assertThat(soldUnits(first) + soldUnits(second)).isEqualTo(THREADS / 2 * 5 * 20 * 7L);
+        stockService.reconcile();
+        assertThat(storedStock(first) + soldUnits(first)).isEqualTo(100_000);
+    }
+
+    @Test
+    void cancellingAnOrderRestoresItsStock() throws Exception {
+        Long productId = product(10).getId();
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(order(productId, 4)))
+                .andExpect(status().isCreated());
+        Long orderId = jdbcTemplate.queryForObject("SELECT id FROM orders WHERE customer_id = ?", Long.class, customer.getId());
+
+        stockService.reconcile();
+        assertThat(storedStock(productId)).isEqualTo(6);
+
+        mockMvc.perform(put("/orders/{id}/status", orderId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\": \"CANCELLED\"}"))
+                .andExpect(status().isOk());
+        assertThat(storedStock(productId)).isEqualTo(10);
+    }
+
+    @Test
+    void productsWithoutStockAreUnlimitedUntilRestocked() throws Exception {
+        Long productId = product(null).getId();
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(order(productId, 1000)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/products/{id}/stock", productId))
+                .andExpect(jsonPath("$.stockQuantity").doesNotExist());
+
+        mockMvc.perform(post("/products/{id}/stock", productId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockQuantity").value(5));
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(order(productId, 6)))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(order(productId, 5)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/products/{id}/stock", -1L).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 5}"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Product product(Integer stock) {
+        Product product = fixtures.product("Produto estoque", 1000, stock);
+        products.add(product);
+        return product;
+    }
+
+    private String order(Long productId, int quantity) {
+        return "{\"customerId\": " + customer.getId() + ", \"items\": [{\"productId\": " + productId
+                + ", \"quantity\": " + quantity + "}]}";
+    }
+
+    private Integer storedStock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private Long soldUnits(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT coalesce(sum(quantity), 0) FROM order_items WHERE product_id = ?",
+                Long.class, productId);
+    }
+}
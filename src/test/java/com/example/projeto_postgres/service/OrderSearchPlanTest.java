@@ -0,0 +1,132 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.model.Order;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Planos de execução da busca de pedidos: cada combinação comum de filtros é
+ * lida do índice correspondente (V13 e V15), do cursor até o LIMIT, sem varrer a
+ * tabela nem ordenar
+ *
+ * Os planos só refletem o uso real com volume e estatísticas: o teste grava
+ * 100 mil pedidos de 500 clientes, a maioria entregue, como num histórico,
+ * uma única vez para todos os testes da classe.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderSearchPlanTest {
+
+    private static final int CUSTOMERS = 500;
+    private static final int ORDERS = 100_000;
+    private static final LocalDateTime START = LocalDateTime.of(1992, 1, 1, 0, 0);
+
+    @Autowired
+    private OrderSearchService orderSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String emailPrefix;
+    private Long customerId;
+
+    @BeforeAll
+    void createOrders() {
+        emailPrefix = "plan-" + UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO customers (id, name, email, version) "
+                + "SELECT nextval('customers_seq'), 'Cliente ' || i, ? || '-' || i || '@example.com', 0 "
+                + "FROM generate_series(1, ?) AS i", emailPrefix, CUSTOMERS);
+        customerId = jdbcTemplate.queryForObject("SELECT min(id) FROM customers WHERE email LIKE ?",
+                Long.class, emailPrefix + "-%");
+        // Um pedido a cada 5 minutos; 2% de cada status em aberto (0 a 2), 4% cancelados (4), o resto entregue (3)
+        jdbcTemplate.update("INSERT INTO orders (id, customer_id, order_date, status, item_count, total_amount_in_cents, version) "
+                + "SELECT nextval('orders_seq'), c.id, ?::timestamp + i * interval '5 minutes', "
+                + "CASE WHEN i % 50 < 3 THEN i % 50 WHEN i % 50 < 5 THEN 4 ELSE 3 END, 1, 1000 + (i * 7919) % 100000, 0 "
+                + "FROM generate_series(1, ?) AS i "
+                + "JOIN (SELECT id, row_number() OVER (ORDER BY id) - 1 AS n FROM customers WHERE email LIKE ?) c "
+                + "ON c.n = i % ?", START, ORDERS, emailPrefix + "-%", CUSTOMERS);
+        jdbcTemplate.execute("ANALYZE customers");
+        jdbcTemplate.execute("ANALYZE orders");
+    }
+
+    @AfterAll
+    void removeOrders() {
+        // Os pedidos saem junto (ON DELETE CASCADE)
+        jdbcTemplate.update("DELETE FROM customers WHERE email LIKE ?", emailPrefix + "-%");
+        jdbcTemplate.execute("ANALYZE orders");
+    }
+
+    @Test
+    void withoutFiltersOrByPeriodReadsTheDateIndex() {
+        assertPlan(filters(null, null, null), null, "idx_orders_order_date_id");
+        assertPlan(new OrderSearchService.Filters(null, START.plusDays(30), START.plusDays(60), null, null),
+                null, "idx_orders_order_date_id");
+        assertPlan(new OrderSearchService.Filters(null, START.plusDays(30), START.plusDays(60), null, 50_000L),
+                null, "idx_orders_order_date_id");
+        // Página seguinte: o cursor é uma condição do índice, não um filtro das linhas lidas
+        assertPlan(filters(null, null, null), START.plusDays(100) + "_" + Long.MAX_VALUE, "idx_orders_order_date_id");
+    }
+
+    @Test
+    void byOpenStatusReadsThePartialIndexes() {
+        assertPlan(filters(List.of(Order.OrderStatus.PENDING), null, null), null,
+                "idx_orders_open_order_date_id");
+        assertPlan(new OrderSearchService.Filters(List.of(Order.OrderStatus.SHIPPED), START.plusDays(30),
+                START.plusDays(60), null, null), null, "idx_orders_open_order_date_id");
+        // Todos os pedidos em aberto, do mais recente para o mais antigo
+        assertPlan(filters(List.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED),
+                null, null), null, "idx_orders_open_order_date_id");
+    }
+
+    @Test
+    void byFinalStatusReadsTheDateIndex() {
+        // A maioria dos pedidos é entregue: o índice de datas acha a página logo nas primeiras linhas
+        assertPlan(filters(List.of(Order.OrderStatus.DELIVERED), null, null), null, "idx_orders_order_date_id");
+    }
+
+    @Test
+    void byCustomerReadsTheCustomerIndex() {
+        assertPlan(filters(null, customerId, null), null, "idx_orders_customer_id_order_date_id");
+        assertPlan(filters(List.of(Order.OrderStatus.DELIVERED), customerId, null), null,
+                "idx_orders_customer_id_order_date_id");
+        // Poucos pedidos do cliente no período: o índice traz todos e ordenar essas linhas é o mais barato
+        assertIndex(new OrderSearchService.Filters(null, START.plusDays(30), START.plusDays(60), customerId, null),
+                null, "idx_orders_customer_id_order_date_id");
+        assertPlan(filters(null, customerId, 50_000L), START.plusDays(100) + "_" + Long.MAX_VALUE,
+                "idx_orders_customer_id_order_date_id");
+    }
+
+    private static OrderSearchService.Filters filters(List<Order.OrderStatus> statuses, Long customerId,
+                                                      Long minTotalInCents) {
+        return new OrderSearchService.Filters(statuses, null, null, customerId, minTotalInCents);
+    }
+
+    /**
+     * O índice é lido de trás para frente já na ordem da página: nenhuma ordenação
+     */
+    private void assertPlan(OrderSearchService.Filters filters, String after, String index) {
+        String plan = String.join("\n", orderSearchService.explain(filters, after, 20));
+        assertThat(plan).as(plan)
+                .contains("Index Scan Backward using " + index + " on orders")
+                .doesNotContain("Seq Scan on orders")
+                .doesNotContain("Sort Key");
+    }
+
+    private void assertIndex(OrderSearchService.Filters filters, String after, String index) {
+        String plan = String.join("\n", orderSearchService.explain(filters, after, 20));
+        assertThat(plan).as(plan)
+                .contains(index)
+                .doesNotContain("Seq Scan on orders");
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.projeto_postgres.service;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Backfill dos totais de pedidos antigos e preço congelado nos itens
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class OrderTotalsBackfillTest {
+
+    @Autowired
+    private OrderTotalsBackfillService backfillService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+    private Product product;
+    private Long orderId;
+    private Long emptyOrderId;
+
+    /**
+     * Pedidos gravados antes da V3: colunas de totais e preço do item nulas
+     */
+    @BeforeEach
+    void createLegacyOrders() {
+        customer = fixtures.customer("Cliente backfill", "backfill");
+        product = fixtures.product("Produto backfill", 500);
+
+        orderId = insertLegacyOrder();
+        emptyOrderId = insertLegacyOrder();
+        for (int quantity = 2; quantity <= 3; quantity++) {
+            jdbcTemplate.update("INSERT INTO order_items (id, order_id, product_id, quantity) "
+                    + "VALUES (nextval('order_items_seq'), ?, ?, ?)", orderId, product.getId(), quantity);
+        }
+    }
+
+    private Long insertLegacyOrder() {
+        return jdbcTemplate.queryForObject("INSERT INTO orders (id, customer_id, order_date, status) "
+                + "VALUES (nextval('orders_seq'), ?, now(), 0) RETURNING id", Long.class, customer.getId());
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void backfillFillsTotalsAndFreezesItemPrices() throws Exception {
+        assertThat(backfillService.backfill()).isGreaterThanOrEqualTo(2);
+
+        assertThat(totals(orderId)).containsEntry("item_count", 2).containsEntry("total_amount_in_cents", 2500L);
+        assertThat(totals(emptyOrderId)).containsEntry("item_count", 0).containsEntry("total_amount_in_cents", 0L);
+        assertThat(jdbcTemplate.queryForList("SELECT unit_price_in_cents FROM order_items WHERE order_id = ?",
+                Integer.class, orderId)).containsOnly(500);
+
+        // Uma segunda execução não encontra linhas pendentes
+        assertThat(backfillService.backfill()).isZero();
+
+        // Alterar o preço do produto não muda o pedido já feito
+        jdbcTemplate.update("UPDATE products SET price_in_cents = 900 WHERE id = ?", product.getId());
+        mockMvc.perform(get("/orders/" + orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAmount").value(2500))
+                .andExpect(jsonPath("$.items[0].unitPriceInCents").value(500));
+        mockMvc.perform(get("/orders/customer/" + customer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].itemCount").value(2))
+                .andExpect(jsonPath("$.items[0].totalAmount").value(2500));
+    }
+
+    @Test
+    void legacyOrdersAreReadableBeforeTheBackfill() throws Exception {
+        // Sem preço congelado, o item ainda não tem subtotal
+        mockMvc.perform(get("/orders/" + orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].unitPriceInCents").value(nullValue()))
+                .andExpect(jsonPath("$.items[0].subtotal").value(nullValue()));
+        mockMvc.perform(get("/products/" + product.getId() + "/order-items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].subtotal").value(nullValue()));
+    }
+
+    private Map<String, Object> totals(Long id) {
+        return jdbcTemplate.queryForMap("SELECT item_count, total_amount_in_cents FROM orders WHERE id = ?", id);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.projeto_postgres.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conta as idas ao banco feitas através do DataSource da aplicação
+ *
+ * Envolve o DataSource em um proxy JDBC e conta cada execute/executeQuery/
+ * executeUpdate/executeBatch, além de commits e rollbacks. Um lote JDBC conta
+ * como uma única ida ao banco.
+ *
+ * Uso nos testes: {@code @Import(JdbcRoundTripCounter.class)}
+ */
+public class JdbcRoundTripCounter implements BeanPostProcessor {
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+
+    public long statements() {
+        return statements.get();
+    }
+
+    public long roundTrips() {
+        return statements.get() + commits.get();
+    }
+
+    public void reset() {
+        statements.set(0);
+        commits.set(0);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(dataSource, DataSource.class);
+        }
+        return bean;
+    }
+
+    private Object proxy(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return wrap(method, result);
+                });
+    }
+
+    private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (target instanceof Statement && name.startsWith("execute")) {
+            statements.incrementAndGet();
+        } else if (target instanceof Connection && (name.equals("commit") || name.equals("rollback"))) {
+            commits.incrementAndGet();
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object wrap(Method method, Object result) {
+        if (result instanceof CallableStatement) {
+            return proxy(result, CallableStatement.class);
+        }
+        if (result instanceof PreparedStatement) {
+            return proxy(result, PreparedStatement.class);
+        }
+        if (result instanceof Statement && method.getDeclaringClass() == Connection.class) {
+            return proxy(result, Statement.class);
+        }
+        if (result instanceof Connection && method.getName().equals("getConnection")) {
+            return proxy(result, Connection.class);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.projeto_postgres.support;
+
+import com.example.projeto_postgres.model.Customer;
+import com.example.projeto_postgres.model.Product;
+import com.example.projeto_postgres.repository.CustomerRepository;
+import com.example.projeto_postgres.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Cria os clientes e produtos de um teste e os remove no fim dele
+ *
+ * Cada cliente recebe um e-mail único a partir do prefixo informado. cleanUp
+ * deleta os clientes criados, e com eles os pedidos e itens (ON DELETE CASCADE
+ * da V8), e depois os produtos.
+ *
+ * Uso nos testes: {@code @Import(TestFixtures.class)} e {@code fixtures.cleanUp()}
+ * no {@code @AfterEach}
+ */
+public class TestFixtures {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> customerIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+
+    public Customer customer(String name, String emailPrefix) {
+        return saveCustomers(List.of(newCustomer(name, emailPrefix))).get(0);
+    }
+
+    /**
+     * Cria count clientes de uma vez, chamados namePrefix + " " + índice
+     */
+    public List<Customer> customers(int count, String namePrefix, String emailPrefix) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(newCustomer(namePrefix + " " + i, emailPrefix));
+        }
+        return saveCustomers(customers);
+    }
+
+    public Product product(String name, Integer priceInCents) {
+        return product(name, priceInCents, null);
+    }
+
+    /**
+     * Cria um produto; stockQuantity nulo é um produto sem controle de estoque
+     */
+    public Product product(String name, Integer priceInCents, Integer stockQuantity) {
+        Product product = newProduct(name, priceInCents);
+        product.setStockQuantity(stockQuantity);
+        return saveProducts(List.of(product)).get(0);
+    }
+
+    /**
+     * Cria count produtos de uma vez, chamados namePrefix + " " + índice
+     */
+    public List<Product> products(int count, String namePrefix, IntFunction<Integer> priceInCents) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(newProduct(namePrefix + " " + i, priceInCents.apply(i)));
+        }
+        return saveProducts(products);
+    }
+
+    /**
+     * Remove tudo o que foi criado desde o último cleanUp
+     */
+    public synchronized void cleanUp() {
+        jdbcTemplate.update("DELETE FROM customers WHERE id = ANY(?)", (Object) customerIds.toArray(Long[]::new));
+        jdbcTemplate.update("DELETE FROM products WHERE id = ANY(?)", (Object) productIds.toArray(Long[]::new));
+        customerIds.clear();
+        productIds.clear();
+    }
+
+    private Customer newCustomer(String name, String emailPrefix) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(emailPrefix + "-" + UUID.randomUUID() + "@example.com");
+        return customer;
+    }
+
+    private Product newProduct(String name, Integer priceInCents) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPriceInCents(priceInCents);
+        return product;
+    }
+
+    private List<Customer> saveCustomers(List<Customer> customers) {
+        List<Customer> saved = customerRepository.saveAll(customers);
+        synchronized (this) {
+            saved.forEach(customer -> customerIds.add(customer.getId()));
+        }
+        return saved;
+    }
+
+    private List<Product> saveProducts(List<Product> products) {
+        List<Product> saved = productRepository.saveAll(products);
+        synchronized (this) {
+            saved.forEach(product -> productIds.add(product.getId()));
+        }
+        return saved;
+    }
+}